@@ -1,25 +1,45 @@
 package dev.eduardoroth.mediaplayer;
 
 import android.content.ComponentName;
+import android.net.Uri;
 import android.os.Bundle;
 import android.util.Log;
 import androidx.annotation.OptIn;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
 import androidx.media3.common.C;
+import androidx.media3.common.Player;
 import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.exoplayer.offline.Download;
 import androidx.media3.session.MediaController;
 import androidx.media3.session.SessionToken;
+import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.PluginCall;
 import com.google.common.util.concurrent.ListenableFuture;
 import dev.eduardoroth.mediaplayer.models.AndroidOptions;
+import dev.eduardoroth.mediaplayer.models.BatchCommand;
+import dev.eduardoroth.mediaplayer.models.BufferProfile;
 import dev.eduardoroth.mediaplayer.models.ExtraOptions;
+import dev.eduardoroth.mediaplayer.models.MediaItem;
 import dev.eduardoroth.mediaplayer.models.MediaPlayerNotification;
 import dev.eduardoroth.mediaplayer.models.PlacementOptions;
+import dev.eduardoroth.mediaplayer.models.QueueItem;
+import dev.eduardoroth.mediaplayer.player.MediaPlayerCache;
+import dev.eduardoroth.mediaplayer.player.MediaPlayerDownloadManager;
+import dev.eduardoroth.mediaplayer.player.MediaPlayerLoadControl;
+import dev.eduardoroth.mediaplayer.player.MediaPlayerPool;
+import dev.eduardoroth.mediaplayer.player.MediaPlayerPreloader;
+import dev.eduardoroth.mediaplayer.state.MediaPlayerSnapshot;
 import dev.eduardoroth.mediaplayer.state.MediaPlayerState;
 import dev.eduardoroth.mediaplayer.state.MediaPlayerStateProvider;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class MediaPlayer {
 
@@ -39,13 +59,31 @@ public class MediaPlayer {
         AndroidOptions android,
         ExtraOptions extra
     ) {
+        // The service shares this process, so create resolves as soon as the session has its player instead of
+        // waiting for the controller handshake. The controller is only kept to own the session until remove.
+        AtomicReference<MediaPlayerState> readyState = new AtomicReference<>();
+        AtomicBoolean removedBeforeReady = new AtomicBoolean(false);
+        String handoffToken = MediaPlayerSessionHandoff.offer(
+            new MediaPlayerSessionHandoff.SessionRequest(
+                playerId,
+                url,
+                placement,
+                android,
+                extra.withPoster(extra.poster != null ? getFinalPath(extra.poster) : null),
+                player -> {
+                    // remove can run between the session getting its player and this callback, nothing is left to show.
+                    if (!MediaPlayerStateProvider.hasState(playerId)) {
+                        removedBeforeReady.set(true);
+                        return;
+                    }
+                    readyState.set(MediaPlayerStateProvider.getState(playerId));
+                    addContainer(call, playerId, player);
+                }
+            )
+        );
         Bundle connectionHints = new Bundle();
         connectionHints.putString("playerId", playerId);
-        connectionHints.putString("videoUrl", url);
-        connectionHints.putSerializable("placement", placement);
-        connectionHints.putSerializable("android", android);
-        extra.poster = extra.poster != null ? getFinalPath(extra.poster) : null;
-        connectionHints.putSerializable("extra", extra);
+        connectionHints.putString("handoffToken", handoffToken);
 
         SessionToken sessionToken = new SessionToken(
             _currentActivity.getApplicationContext(),
@@ -60,33 +98,63 @@ public class MediaPlayer {
 
         futureController.addListener(
             () -> {
-                JSObject ret = new JSObject();
-                ret.put("method", "create");
+                MediaPlayerSessionHandoff.discard(handoffToken);
+                MediaController controller;
                 try {
-                    _currentActivity
-                        .getSupportFragmentManager()
-                        .beginTransaction()
-                        .add(R.id.MediaPlayerFragmentContainerView, new MediaPlayerContainer(futureController.get(), playerId), playerId)
-                        .commit();
-                    ret.put("result", true);
-                    ret.put("value", playerId);
-                    call.resolve(ret);
+                    controller = futureController.get();
                 } catch (Exception | Error futureError) {
+                    if (readyState.get() != null) {
+                        return;
+                    }
+                    JSObject ret = new JSObject();
+                    ret.put("method", "create");
                     ret.put("result", false);
                     ret.put("message", "An error occurred while creating player with id " + playerId + ".\n" + futureError.getMessage());
                     call.resolve(ret);
+                    return;
+                }
+                MediaPlayerState state = readyState.get();
+                if (state == null && !removedBeforeReady.get() && MediaPlayerStateProvider.hasState(playerId)) {
+                    state = MediaPlayerStateProvider.getState(playerId);
+                    state.mediaController.set(controller);
+                    addContainer(call, playerId, controller);
+                } else if (state != null && MediaPlayerStateProvider.isCurrentState(playerId, state)) {
+                    state.mediaController.set(controller);
+                } else {
+                    // Removed before the controller connected, releasing it lets the service recycle the player.
+                    controller.release();
+                    if (state == null) {
+                        JSObject ret = new JSObject();
+                        ret.put("method", "create");
+                        ret.put("result", false);
+                        ret.put("message", "Player with id " + playerId + " was removed before it was ready.");
+                        call.resolve(ret);
+                    }
                 }
             },
             _currentActivity.getMainExecutor()
         );
     }
 
+    private void addContainer(PluginCall call, String playerId, Player player) {
+        _currentActivity
+            .getSupportFragmentManager()
+            .beginTransaction()
+            .add(R.id.MediaPlayerFragmentContainerView, new MediaPlayerContainer(player, playerId), playerId)
+            .commit();
+        JSObject ret = new JSObject();
+        ret.put("method", "create");
+        ret.put("result", true);
+        ret.put("value", playerId);
+        call.resolve(ret);
+    }
+
     public void play(PluginCall call, String playerId) {
         JSObject ret = new JSObject();
         ret.put("method", "play");
         try {
             MediaPlayerState playerState = MediaPlayerStateProvider.getState(playerId);
-            playerState.mediaController.get().play();
+            getPlayer(playerState).play();
             ret.put("result", true);
             ret.put("value", true);
         } catch (Error | Exception err) {
@@ -101,7 +169,7 @@ public class MediaPlayer {
         ret.put("method", "pause");
         try {
             MediaPlayerState playerState = MediaPlayerStateProvider.getState(playerId);
-            playerState.mediaController.get().pause();
+            getPlayer(playerState).pause();
             ret.put("result", true);
             ret.put("value", true);
         } catch (Error | Exception err) {
@@ -115,10 +183,9 @@ public class MediaPlayer {
         JSObject ret = new JSObject();
         ret.put("method", "getDuration");
         try {
-            MediaPlayerState playerState = MediaPlayerStateProvider.getState(playerId);
-            long duration = playerState.mediaController.get().getDuration();
+            MediaPlayerSnapshot snapshot = MediaPlayerStateProvider.getSnapshot(playerId);
             ret.put("result", true);
-            ret.put("value", duration == C.TIME_UNSET ? 0 : (duration / 1000));
+            ret.put("value", snapshot.durationMs() / 1000);
         } catch (Error | Exception err) {
             ret.put("result", false);
             ret.put("message", "Player not found. " + err.getMessage());
@@ -130,10 +197,9 @@ public class MediaPlayer {
         JSObject ret = new JSObject();
         ret.put("method", "getCurrentTime");
         try {
-            MediaPlayerState playerState = MediaPlayerStateProvider.getState(playerId);
-            long currentTime = playerState.mediaController.get().getCurrentPosition();
+            MediaPlayerSnapshot snapshot = MediaPlayerStateProvider.getSnapshot(playerId);
             ret.put("result", true);
-            ret.put("value", currentTime == C.TIME_UNSET ? 0 : (currentTime / 1000));
+            ret.put("value", snapshot.currentPositionMs() / 1000);
         } catch (Error | Exception err) {
             ret.put("result", false);
             ret.put("message", "Player not found. " + err.getMessage());
@@ -145,16 +211,9 @@ public class MediaPlayer {
         JSObject ret = new JSObject();
         ret.put("method", "setCurrentTime");
         try {
-            MediaController controller = MediaPlayerStateProvider.getState(playerId).mediaController.get();
-
-            long duration = controller.getDuration();
-            long currentTime = controller.getCurrentPosition();
-            long seekPosition = currentTime == C.TIME_UNSET
-                ? 0
-                : Math.min(Math.max(0, time * 1000), duration == C.TIME_UNSET ? 0 : duration);
-            controller.seekTo(seekPosition);
+            Player player = getPlayer(MediaPlayerStateProvider.getState(playerId));
             ret.put("result", true);
-            ret.put("value", seekPosition);
+            ret.put("value", seekTo(player, time));
         } catch (Error | Exception err) {
             ret.put("result", false);
             ret.put("message", "Player not found. " + err.getMessage());
@@ -166,9 +225,9 @@ public class MediaPlayer {
         JSObject ret = new JSObject();
         ret.put("method", "isPlaying");
         try {
-            MediaPlayerState playerState = MediaPlayerStateProvider.getState(playerId);
+            MediaPlayerSnapshot snapshot = MediaPlayerStateProvider.getSnapshot(playerId);
             ret.put("result", true);
-            ret.put("value", playerState.mediaController.get().isPlaying());
+            ret.put("value", snapshot.isPlaying());
         } catch (Error | Exception err) {
             ret.put("result", false);
             ret.put("message", "Player not found. " + err.getMessage());
@@ -180,9 +239,9 @@ public class MediaPlayer {
         JSObject ret = new JSObject();
         ret.put("method", "isMuted");
         try {
-            MediaPlayerState playerState = MediaPlayerStateProvider.getState(playerId);
+            MediaPlayerSnapshot snapshot = MediaPlayerStateProvider.getSnapshot(playerId);
             ret.put("result", true);
-            ret.put("value", playerState.mediaController.get().getVolume() == 0);
+            ret.put("value", snapshot.volume() == 0);
         } catch (Error | Exception err) {
             ret.put("result", false);
             ret.put("message", "Player not found. " + err.getMessage());
@@ -195,7 +254,7 @@ public class MediaPlayer {
         ret.put("method", "mute");
         try {
             MediaPlayerState playerState = MediaPlayerStateProvider.getState(playerId);
-            playerState.mediaController.get().setVolume(0);
+            getPlayer(playerState).setVolume(0);
             ret.put("result", true);
             ret.put("value", true);
         } catch (Error | Exception err) {
@@ -209,9 +268,9 @@ public class MediaPlayer {
         JSObject ret = new JSObject();
         ret.put("method", "getVolume");
         try {
-            MediaPlayerState playerState = MediaPlayerStateProvider.getState(playerId);
+            MediaPlayerSnapshot snapshot = MediaPlayerStateProvider.getSnapshot(playerId);
             ret.put("result", true);
-            ret.put("value", playerState.mediaController.get().getVolume());
+            ret.put("value", snapshot.volume());
         } catch (Error | Exception err) {
             ret.put("result", false);
             ret.put("message", "Player not found. " + err.getMessage());
@@ -224,7 +283,7 @@ public class MediaPlayer {
         ret.put("method", "setVolume");
         try {
             MediaPlayerState playerState = MediaPlayerStateProvider.getState(playerId);
-            playerState.mediaController.get().setVolume(volume.floatValue());
+            getPlayer(playerState).setVolume(volume.floatValue());
             ret.put("result", true);
             ret.put("value", volume);
         } catch (Error | Exception err) {
@@ -238,9 +297,9 @@ public class MediaPlayer {
         JSObject ret = new JSObject();
         ret.put("method", "getRate");
         try {
-            MediaPlayerState playerState = MediaPlayerStateProvider.getState(playerId);
+            MediaPlayerSnapshot snapshot = MediaPlayerStateProvider.getSnapshot(playerId);
             ret.put("result", true);
-            ret.put("value", playerState.mediaController.get().getPlaybackParameters().speed);
+            ret.put("value", snapshot.rate());
         } catch (Error | Exception err) {
             ret.put("result", false);
             ret.put("message", "Player not found. " + err.getMessage());
@@ -253,7 +312,7 @@ public class MediaPlayer {
         ret.put("method", "setRate");
         try {
             MediaPlayerState playerState = MediaPlayerStateProvider.getState(playerId);
-            playerState.mediaController.get().setPlaybackSpeed(rate.floatValue());
+            getPlayer(playerState).setPlaybackSpeed(rate.floatValue());
             ret.put("result", true);
             ret.put("value", rate);
         } catch (Error | Exception err) {
@@ -263,25 +322,55 @@ public class MediaPlayer {
         call.resolve(ret);
     }
 
+    public void getState(PluginCall call, String playerId) {
+        JSObject ret = new JSObject();
+        ret.put("method", "getState");
+        try {
+            MediaPlayerSnapshot snapshot = MediaPlayerStateProvider.getSnapshot(playerId);
+            JSObject value = new JSObject();
+            value.put("playerId", snapshot.playerId());
+            value.put("url", snapshot.url());
+            value.put("playbackState", snapshot.playbackState());
+            value.put("isPlaying", snapshot.isPlaying());
+            value.put("currentTime", snapshot.currentPositionMs() / 1000);
+            value.put("duration", snapshot.durationMs() / 1000);
+            value.put("volume", snapshot.volume());
+            value.put("isMuted", snapshot.volume() == 0);
+            value.put("rate", snapshot.rate());
+            value.put("currentIndex", snapshot.currentIndex());
+            value.put("queueLength", snapshot.mediaItemCount());
+            ret.put("result", true);
+            ret.put("value", value);
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Player not found. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
     public void remove(PluginCall call, String playerId) {
         JSObject ret = new JSObject();
         ret.put("method", "remove");
         try {
             MediaPlayerState state = MediaPlayerStateProvider.getState(playerId);
-            state.mediaController.get().stop();
+            getPlayer(state).stop();
 
             // Find and remove the fragment.
             Fragment playerFragment = _currentActivity.getSupportFragmentManager().findFragmentByTag(playerId);
             if (playerFragment != null) {
-                _currentActivity.getSupportFragmentManager()
-                    .beginTransaction()
-                    .remove(playerFragment)
-                    .commitNow();
+                _currentActivity.getSupportFragmentManager().beginTransaction().remove(playerFragment).commitNow();
+            }
+
+            // Releasing the controller lets the service return the player to the pool. When it hasn't connected yet,
+            // create releases it as soon as it does.
+            MediaController controller = state.mediaController.get();
+            if (controller != null) {
+                controller.release();
             }
-    
+
             // Clear the stored state so that a new creation doesn't reuse the old state.
             MediaPlayerStateProvider.clearState(playerId);
-    
+
             // Post a notification that the player was removed.
             MediaPlayerNotificationCenter.post(
                 MediaPlayerNotification.create(playerId, MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_REMOVED)
@@ -296,20 +385,18 @@ public class MediaPlayer {
         call.resolve(ret);
     }
 
-
-
-
     public void removeAll(PluginCall call) {
         List<Fragment> fragments = new ArrayList<>(_currentActivity.getSupportFragmentManager().getFragments());
         for (Fragment fragment : fragments) {
             String playerId = fragment.getTag();
-            _currentActivity.getSupportFragmentManager()
-                .beginTransaction()
-                .remove(fragment)
-                .commitNow();
+            _currentActivity.getSupportFragmentManager().beginTransaction().remove(fragment).commitNow();
             try {
                 MediaPlayerState playerState = MediaPlayerStateProvider.getState(playerId);
-                playerState.mediaController.get().stop();
+                getPlayer(playerState).stop();
+                MediaController controller = playerState.mediaController.get();
+                if (controller != null) {
+                    controller.release();
+                }
             } catch (Error | Exception ignored) {
                 // Ignore errors for missing state.
             }
@@ -326,6 +413,473 @@ public class MediaPlayer {
         call.resolve(ret);
     }
 
+    public void setQueue(PluginCall call, String playerId, List<QueueItem> items, int startIndex) {
+        JSObject ret = new JSObject();
+        ret.put("method", "setQueue");
+        try {
+            Player player = getPlayer(MediaPlayerStateProvider.getState(playerId));
+            player.setMediaItems(getMediaItems(items), startIndex, 0);
+            player.prepare();
+            ret.put("result", true);
+            ret.put("value", player.getMediaItemCount());
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Player not found. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    public void addToQueue(PluginCall call, String playerId, List<QueueItem> items, Integer index) {
+        JSObject ret = new JSObject();
+        ret.put("method", "addToQueue");
+        try {
+            Player player = getPlayer(MediaPlayerStateProvider.getState(playerId));
+            if (index == null) {
+                player.addMediaItems(getMediaItems(items));
+            } else {
+                player.addMediaItems(Math.max(0, Math.min(index, player.getMediaItemCount())), getMediaItems(items));
+            }
+            ret.put("result", true);
+            ret.put("value", player.getMediaItemCount());
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Player not found. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    public void removeFromQueue(PluginCall call, String playerId, int index) {
+        JSObject ret = new JSObject();
+        ret.put("method", "removeFromQueue");
+        try {
+            Player player = getPlayer(MediaPlayerStateProvider.getState(playerId));
+            if (index < 0 || index >= player.getMediaItemCount()) {
+                ret.put("result", false);
+                ret.put("message", "Queue index " + index + " is out of range");
+            } else {
+                player.removeMediaItem(index);
+                ret.put("result", true);
+                ret.put("value", player.getMediaItemCount());
+            }
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Player not found. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    public void moveQueueItem(PluginCall call, String playerId, int from, int to) {
+        JSObject ret = new JSObject();
+        ret.put("method", "moveQueueItem");
+        try {
+            Player player = getPlayer(MediaPlayerStateProvider.getState(playerId));
+            int count = player.getMediaItemCount();
+            if (from < 0 || from >= count || to < 0 || to >= count) {
+                ret.put("result", false);
+                ret.put("message", "Queue indexes " + from + " and " + to + " must be between 0 and " + (count - 1));
+            } else {
+                player.moveMediaItem(from, to);
+                ret.put("result", true);
+                ret.put("value", to);
+            }
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Player not found. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    public void getQueue(PluginCall call, String playerId) {
+        JSObject ret = new JSObject();
+        ret.put("method", "getQueue");
+        try {
+            Player player = getPlayer(MediaPlayerStateProvider.getState(playerId));
+            JSArray items = new JSArray();
+            for (int i = 0; i < player.getMediaItemCount(); i++) {
+                androidx.media3.common.MediaItem mediaItem = player.getMediaItemAt(i);
+                JSObject item = new JSObject();
+                item.put("url", mediaItem.mediaId);
+                item.put("title", mediaItem.mediaMetadata.title != null ? mediaItem.mediaMetadata.title.toString() : null);
+                items.put(item);
+            }
+            JSObject value = new JSObject();
+            value.put("currentIndex", player.getCurrentMediaItemIndex());
+            value.put("items", items);
+            ret.put("result", true);
+            ret.put("value", value);
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Player not found. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    public void executeBatch(PluginCall call, List<BatchCommand> commands) {
+        // One lookup per player for the whole batch, and every command lands in the same main thread task.
+        HashMap<String, Player> players = new HashMap<>();
+        JSArray results = new JSArray();
+        for (BatchCommand command : commands) {
+            JSObject result = new JSObject();
+            result.put("playerId", command.playerId);
+            result.put("command", command.command);
+            try {
+                Player player = players.get(command.playerId);
+                if (player == null) {
+                    player = getPlayer(MediaPlayerStateProvider.getState(command.playerId));
+                    players.put(command.playerId, player);
+                }
+                result.put("value", executeCommand(player, command));
+                result.put("result", true);
+            } catch (Error | Exception err) {
+                result.put("result", false);
+                result.put("message", err.getMessage());
+            }
+            results.put(result);
+        }
+        JSObject ret = new JSObject();
+        ret.put("method", "executeBatch");
+        ret.put("result", true);
+        ret.put("value", results);
+        call.resolve(ret);
+    }
+
+    private Object executeCommand(Player player, BatchCommand command) {
+        switch (command.command) {
+            case "play" -> {
+                player.play();
+                return true;
+            }
+            case "pause" -> {
+                player.pause();
+                return true;
+            }
+            case "mute" -> {
+                player.setVolume(0);
+                return true;
+            }
+            case "setVolume" -> {
+                player.setVolume(getCommandValue(command).floatValue());
+                return command.value;
+            }
+            case "setRate" -> {
+                player.setPlaybackSpeed(getCommandValue(command).floatValue());
+                return command.value;
+            }
+            case "setCurrentTime" -> {
+                return seekTo(player, getCommandValue(command).longValue());
+            }
+            default -> throw new Error("Unknown command " + command.command);
+        }
+    }
+
+    private Double getCommandValue(BatchCommand command) {
+        if (command.value == null) {
+            throw new Error("Must provide a value for " + command.command);
+        }
+        return command.value;
+    }
+
+    private long seekTo(Player player, long time) {
+        long duration = player.getDuration();
+        long currentTime = player.getCurrentPosition();
+        long seekPosition = currentTime == C.TIME_UNSET
+            ? 0
+            : Math.min(Math.max(0, time * 1000), duration == C.TIME_UNSET ? 0 : duration);
+        player.seekTo(seekPosition);
+        return seekPosition;
+    }
+
+    // Commands run on the session's ExoPlayer directly, the controller would send each of them through the binder.
+    private Player getPlayer(MediaPlayerState state) {
+        Player player = state.player.get();
+        if (player != null) {
+            return player;
+        }
+        MediaController controller = state.mediaController.get();
+        if (controller == null) {
+            throw new Error("Player is not ready");
+        }
+        return controller;
+    }
+
+    public void getBufferInfo(PluginCall call, String playerId) {
+        JSObject ret = new JSObject();
+        ret.put("method", "getBufferInfo");
+        try {
+            MediaPlayerState playerState = MediaPlayerStateProvider.getState(playerId);
+            Player player = getPlayer(playerState);
+            BufferProfile bufferProfile = playerState.androidOptions.get().bufferProfile;
+            JSObject value = new JSObject();
+            value.put("profile", bufferProfile.name);
+            value.put("minBufferMs", bufferProfile.minBufferMs);
+            value.put("maxBufferMs", bufferProfile.maxBufferMs);
+            value.put("bufferForPlaybackMs", bufferProfile.bufferForPlaybackMs);
+            value.put("bufferForPlaybackAfterRebufferMs", bufferProfile.bufferForPlaybackAfterRebufferMs);
+            value.put("backBufferMs", bufferProfile.backBufferMs);
+            value.put("targetBufferBytes", bufferProfile.targetBufferBytes);
+            value.put("bufferedDurationMs", player.getTotalBufferedDuration());
+            value.put("bufferedPercentage", player.getBufferedPercentage());
+            MediaPlayerLoadControl loadControl = player instanceof ExoPlayer exoPlayer ? MediaPlayerPool.getLoadControl(exoPlayer) : null;
+            value.put("bufferedBytes", loadControl != null ? loadControl.getAllocatedBytes() : -1);
+            value.put("bufferBudget", loadControl != null ? loadControl.getBudgetShareBytes() : -1);
+            ret.put("result", true);
+            ret.put("value", value);
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Player not found. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    public void getStats(PluginCall call, String playerId) {
+        JSObject ret = new JSObject();
+        ret.put("method", "getStats");
+        try {
+            ret.put("result", true);
+            ret.put("value", MediaPlayerStateProvider.getStats(playerId).toJSObject());
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Player not found. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    public void getPlayerPoolStats(PluginCall call) {
+        JSObject ret = new JSObject();
+        ret.put("method", "getPlayerPoolStats");
+        try {
+            MediaPlayerPool.PoolStats stats = MediaPlayerPool.getStats();
+            JSObject value = new JSObject();
+            value.put("idle", stats.idle());
+            value.put("minIdle", stats.minIdle());
+            value.put("maxIdle", stats.maxIdle());
+            value.put("idleTimeout", stats.idleTimeoutMs());
+            value.put("hits", stats.hits());
+            value.put("misses", stats.misses());
+            value.put("created", stats.created());
+            value.put("recycled", stats.recycled());
+            value.put("evicted", stats.evicted());
+            value.put("playbackThreads", stats.playbackThreads());
+            value.put("memoryBudget", stats.memoryBudget());
+            value.put("allocatedBytes", stats.allocatedBytes());
+            ret.put("result", true);
+            ret.put("value", value);
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Player pool not available. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    public void getCacheStats(PluginCall call) {
+        JSObject ret = new JSObject();
+        ret.put("method", "getCacheStats");
+        try {
+            MediaPlayerCache.CacheStats stats = MediaPlayerCache.getStats();
+            JSObject value = new JSObject();
+            value.put("enabled", stats.enabled());
+            value.put("size", stats.size());
+            value.put("maxSize", stats.maxSize());
+            value.put("cachedBytesRead", stats.cachedBytesRead());
+            value.put("networkBytesRead", stats.networkBytesRead());
+            value.put("hitRatio", stats.hitRatio());
+            value.put("pinned", new JSArray(stats.pinned()));
+            ret.put("result", true);
+            ret.put("value", value);
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Media cache not available. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    public void clearCache(PluginCall call) {
+        JSObject ret = new JSObject();
+        ret.put("method", "clearCache");
+        try {
+            MediaPlayerCache.clear();
+            ret.put("result", true);
+            ret.put("value", true);
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Media cache not available. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    public void pinCacheEntry(PluginCall call, String url) {
+        JSObject ret = new JSObject();
+        ret.put("method", "pinCacheEntry");
+        try {
+            MediaPlayerCache.pin(url);
+            ret.put("result", true);
+            ret.put("value", url);
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Media cache not available. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    public void unpinCacheEntry(PluginCall call, String url) {
+        JSObject ret = new JSObject();
+        ret.put("method", "unpinCacheEntry");
+        try {
+            MediaPlayerCache.unpin(url);
+            ret.put("result", true);
+            ret.put("value", url);
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Media cache not available. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    public void preload(PluginCall call, String url, ExtraOptions extra, Long durationMs, Long bitrate) {
+        try {
+            MediaPlayerPreloader.preload(
+                url,
+                extra.headers,
+                durationMs,
+                bitrate,
+                (bytesCached, error) -> {
+                    JSObject ret = new JSObject();
+                    ret.put("method", "preload");
+                    if (error == null) {
+                        ret.put("result", true);
+                        ret.put("value", bytesCached);
+                    } else {
+                        ret.put("result", false);
+                        ret.put("message", "Could not preload " + url + ". " + error.getMessage());
+                    }
+                    call.resolve(ret);
+                }
+            );
+        } catch (Error | Exception err) {
+            JSObject ret = new JSObject();
+            ret.put("method", "preload");
+            ret.put("result", false);
+            ret.put("message", "Could not preload " + url + ". " + err.getMessage());
+            call.resolve(ret);
+        }
+    }
+
+    public void cancelPreload(PluginCall call, String url) {
+        JSObject ret = new JSObject();
+        ret.put("method", "cancelPreload");
+        try {
+            ret.put("result", true);
+            ret.put("value", MediaPlayerPreloader.cancel(url));
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Preloader not available. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    public void startDownload(PluginCall call, String url, ExtraOptions extra, Integer maxVideoBitrate) {
+        try {
+            MediaPlayerDownloadManager.start(
+                url,
+                extra.title,
+                extra.headers,
+                maxVideoBitrate,
+                error -> {
+                    JSObject ret = new JSObject();
+                    ret.put("method", "startDownload");
+                    if (error == null) {
+                        ret.put("result", true);
+                        ret.put("value", url);
+                    } else {
+                        ret.put("result", false);
+                        ret.put("message", "Could not download " + url + ". " + error.getMessage());
+                    }
+                    call.resolve(ret);
+                }
+            );
+        } catch (Error | Exception err) {
+            JSObject ret = new JSObject();
+            ret.put("method", "startDownload");
+            ret.put("result", false);
+            ret.put("message", "Could not download " + url + ". " + err.getMessage());
+            call.resolve(ret);
+        }
+    }
+
+    public void pauseDownload(PluginCall call, String url) {
+        JSObject ret = new JSObject();
+        ret.put("method", "pauseDownload");
+        try {
+            MediaPlayerDownloadManager.pause(url);
+            ret.put("result", true);
+            ret.put("value", url);
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Download manager not available. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    public void resumeDownload(PluginCall call, String url) {
+        JSObject ret = new JSObject();
+        ret.put("method", "resumeDownload");
+        try {
+            MediaPlayerDownloadManager.resume(url);
+            ret.put("result", true);
+            ret.put("value", url);
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Download manager not available. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    public void removeDownload(PluginCall call, String url) {
+        JSObject ret = new JSObject();
+        ret.put("method", "removeDownload");
+        try {
+            MediaPlayerDownloadManager.remove(url);
+            ret.put("result", true);
+            ret.put("value", url);
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Download manager not available. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    public void getDownloads(PluginCall call) {
+        JSObject ret = new JSObject();
+        ret.put("method", "getDownloads");
+        try {
+            JSArray downloads = new JSArray();
+            for (Download download : MediaPlayerDownloadManager.getDownloads()) {
+                JSObject value = new JSObject();
+                value.put("url", download.request.id);
+                value.put("title", MediaPlayerDownloadManager.getTitle(download));
+                value.put("state", MediaPlayerDownloadManager.getStateName(download.state));
+                value.put("percentDownloaded", Math.max(0, download.getPercentDownloaded()));
+                value.put("bytesDownloaded", download.getBytesDownloaded());
+                downloads.put(value);
+            }
+            ret.put("result", true);
+            ret.put("value", downloads);
+        } catch (Error | Exception err) {
+            ret.put("result", false);
+            ret.put("message", "Download manager not available. " + err.getMessage());
+        }
+        call.resolve(ret);
+    }
+
+    private List<androidx.media3.common.MediaItem> getMediaItems(List<QueueItem> items) {
+        List<androidx.media3.common.MediaItem> mediaItems = new ArrayList<>();
+        for (QueueItem item : items) {
+            ExtraOptions extra = item.extra.withPoster(item.extra.poster != null ? getFinalPath(item.extra.poster) : null);
+            mediaItems.add(MediaPlayerDownloadManager.getPlayableMediaItem(new MediaItem(Uri.parse(item.url), extra).getMediaItem()));
+        }
+        return mediaItems;
+    }
+
     private String getFinalPath(String url) {
         if (url == null) {
             return null;
@@ -15,7 +15,7 @@ import android.view.KeyEvent;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.FrameLayout;
+import android.view.ViewTreeObserver;
 import android.widget.ImageButton;
 import android.widget.LinearLayout;
 import android.widget.ProgressBar;
@@ -25,10 +25,13 @@ import androidx.annotation.Nullable;
 import androidx.annotation.OptIn;
 import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.app.PictureInPictureModeChangedInfo;
+import androidx.core.util.Consumer;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.Lifecycle;
+import androidx.media3.common.Player;
+import androidx.media3.common.Timeline;
 import androidx.media3.common.util.UnstableApi;
-import androidx.media3.session.MediaController;
 import androidx.media3.ui.CaptionStyleCompat;
 import androidx.media3.ui.PlayerView;
 import androidx.media3.ui.SubtitleView;
@@ -47,46 +50,60 @@ public class MediaPlayerContainer extends Fragment {
     private AndroidOptions _android;
     private ExtraOptions _extra;
     private MediaPlayerState _mediaPlayerState;
-    private final MediaController _playerController;
+    private final Player _player;
     private final String _playerId;
     private final Rect _sourceRectHint = new Rect();
-    private PlayerView _embeddedPlayerView;
-    private PlayerView _fullscreenPlayerView;
+    private final Rect _visibleRect = new Rect();
+    private final ViewTreeObserver.OnGlobalLayoutListener _layoutListener = this::updateHiddenState;
+    private final ViewTreeObserver.OnScrollChangedListener _scrollListener = this::updateHiddenState;
+    private PlayerView _playerView;
     private RelativeLayout _embeddedView;
-    private FrameLayout _fullscreenView;
+    private final Player.Listener _queueListener = new Player.Listener() {
+        @Override
+        public void onTimelineChanged(@NonNull Timeline timeline, int reason) {
+            updateQueueControls();
+        }
+    };
+
+    private final Consumer<PictureInPictureModeChangedInfo> _pictureInPictureListener = state -> {
+        if (getLifecycle().getCurrentState() == Lifecycle.State.CREATED) {
+            _mediaPlayerState.fullscreenState.set(UI_STATE.WILL_EXIT);
+            _mediaPlayerState.pipState.set(UI_STATE.WILL_EXIT);
+            if (!_android.enableBackgroundPlay) {
+                _player.pause();
+            }
+        } else if (getLifecycle().getCurrentState() == Lifecycle.State.STARTED) {
+            if (state.isInPictureInPictureMode()) {
+                if (_mediaPlayerState.fullscreenState.get() != UI_STATE.ACTIVE) {
+                    _mediaPlayerState.fullscreenState.set(UI_STATE.WILL_ENTER);
+                }
+            } else {
+                _mediaPlayerState.fullscreenState.set(UI_STATE.WILL_EXIT);
+                _mediaPlayerState.pipState.set(UI_STATE.WILL_EXIT);
+            }
+        }
+    };
 
-    public MediaPlayerContainer(MediaController playerController, String playerId) {
+    public MediaPlayerContainer(Player player, String playerId) {
         _playerId = playerId;
-        _playerController = playerController;
+        _player = player;
     }
 
     @Override
     public void onCreate(Bundle savedInstanceBundle) {
         super.onCreate(savedInstanceBundle);
         _mediaPlayerState = MediaPlayerStateProvider.getState(_playerId);
-        _mediaPlayerState.mediaController.set(_playerController);
         _placement = _mediaPlayerState.placementOptions.get();
         _android = _mediaPlayerState.androidOptions.get();
         _extra = _mediaPlayerState.extraOptions.get();
-        requireActivity()
-            .addOnPictureInPictureModeChangedListener(state -> {
-                if (getLifecycle().getCurrentState() == Lifecycle.State.CREATED) {
-                    _mediaPlayerState.fullscreenState.set(UI_STATE.WILL_EXIT);
-                    _mediaPlayerState.pipState.set(UI_STATE.WILL_EXIT);
-                    if (!_android.enableBackgroundPlay) {
-                        _playerController.pause();
-                    }
-                } else if (getLifecycle().getCurrentState() == Lifecycle.State.STARTED) {
-                    if (state.isInPictureInPictureMode()) {
-                        if (_mediaPlayerState.fullscreenState.get() != UI_STATE.ACTIVE) {
-                            _mediaPlayerState.fullscreenState.set(UI_STATE.WILL_ENTER);
-                        }
-                    } else {
-                        _mediaPlayerState.fullscreenState.set(UI_STATE.WILL_EXIT);
-                        _mediaPlayerState.pipState.set(UI_STATE.WILL_EXIT);
-                    }
-                }
-            });
+        requireActivity().addOnPictureInPictureModeChangedListener(_pictureInPictureListener);
+    }
+
+    @Override
+    public void onDestroy() {
+        // The activity outlives every player, a listener left behind would keep this fragment and its controller alive.
+        requireActivity().removeOnPictureInPictureModeChangedListener(_pictureInPictureListener);
+        super.onDestroy();
     }
 
     @OptIn(markerClass = UnstableApi.class)
@@ -94,7 +111,13 @@ public class MediaPlayerContainer extends Fragment {
     public void onViewCreated(@NonNull View view, Bundle savedBundleInstance) {
         super.onViewCreated(view, savedBundleInstance);
 
-        _mediaPlayerState.pipState.observe(state -> {
+        _player.addListener(_queueListener);
+        updateQueueControls();
+
+        view.getViewTreeObserver().addOnGlobalLayoutListener(_layoutListener);
+        view.getViewTreeObserver().addOnScrollChangedListener(_scrollListener);
+
+        _mediaPlayerState.pipState.observe(getViewLifecycleOwner(), state -> {
             switch (state) {
                 case ACTIVE -> MediaPlayerNotificationCenter.post(
                     MediaPlayerNotification.create(_playerId, MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_PIP)
@@ -143,7 +166,7 @@ public class MediaPlayerContainer extends Fragment {
             View.SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION |
             View.SYSTEM_UI_FLAG_HIDE_NAVIGATION;
         ActionBar actionBar = getSupportActionBar();
-        _mediaPlayerState.fullscreenState.observe(state -> {
+        _mediaPlayerState.fullscreenState.observe(getViewLifecycleOwner(), state -> {
             switch (state) {
                 case ACTIVE -> MediaPlayerNotificationCenter.post(
                     MediaPlayerNotification.create(_playerId, MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_FULLSCREEN)
@@ -156,12 +179,9 @@ public class MediaPlayerContainer extends Fragment {
                         .build()
                 );
                 case WILL_ENTER -> {
-                    _embeddedView.findViewById(R.id.MediaPlayerEmbeddedContainer).setVisibility(View.GONE);
-                    _fullscreenView.findViewById(R.id.MediaPlayerFullscreenContainer).setVisibility(View.VISIBLE);
-                    _fullscreenView.findViewById(R.id.MediaPlayerFullscreenContainer).getGlobalVisibleRect(_sourceRectHint);
-                    _mediaPlayerState.sourceRectHint.set(_sourceRectHint);
-
-                    PlayerView.switchTargetView(_playerController, _embeddedPlayerView, _fullscreenPlayerView);
+                    // The same view is resized, so the surface and the decoder behind it stay as they are.
+                    updateEmbeddedLayout(true);
+                    updateSourceRectHintAfterLayout();
 
                     decorView.setSystemUiVisibility(fullscreenUiVisibility);
 
@@ -172,12 +192,8 @@ public class MediaPlayerContainer extends Fragment {
                     _mediaPlayerState.fullscreenState.set(UI_STATE.ACTIVE);
                 }
                 case WILL_EXIT -> {
-                    _fullscreenView.findViewById(R.id.MediaPlayerFullscreenContainer).setVisibility(View.GONE);
-                    _embeddedView.findViewById(R.id.MediaPlayerEmbeddedContainer).setVisibility(View.VISIBLE);
-                    _embeddedView.findViewById(R.id.MediaPlayerEmbeddedContainer).getGlobalVisibleRect(_sourceRectHint);
-                    _mediaPlayerState.sourceRectHint.set(_sourceRectHint);
-
-                    PlayerView.switchTargetView(_playerController, _fullscreenPlayerView, _embeddedPlayerView);
+                    updateEmbeddedLayout(false);
+                    updateSourceRectHintAfterLayout();
 
                     decorView.setSystemUiVisibility(defaultUiVisibility);
 
@@ -189,7 +205,7 @@ public class MediaPlayerContainer extends Fragment {
                 }
             }
         });
-        _mediaPlayerState.landscapeState.observe(state -> {
+        _mediaPlayerState.landscapeState.observe(getViewLifecycleOwner(), state -> {
             if (_android.fullscreenOnLandscape && _mediaPlayerState.pipState.get() == UI_STATE.INACTIVE) {
                 if (state == UI_STATE.ACTIVE && _mediaPlayerState.fullscreenState.get() == UI_STATE.INACTIVE) {
                     _mediaPlayerState.fullscreenState.set(UI_STATE.WILL_ENTER);
@@ -217,13 +233,13 @@ public class MediaPlayerContainer extends Fragment {
         super.onCreateView(inflater, container, savedInstanceState);
         View containerView = inflater.inflate(R.layout.media_player_container, container, false);
 
-        _fullscreenView = containerView.findViewById(R.id.MediaPlayerFullscreenContainer);
         _embeddedView = containerView.findViewById(R.id.MediaPlayerEmbeddedContainer);
 
-        updateEmbeddedLayout();
+        updateEmbeddedLayout(false);
 
-        _embeddedPlayerView = createPlayerView(inflater, _embeddedView);
-        _fullscreenPlayerView = createPlayerView(inflater, _fullscreenView);
+        // One view for embedded, fullscreen and PiP, fullscreen only changes the size of its container.
+        _playerView = createPlayerView(inflater, _embeddedView);
+        _playerView.setPlayer(_player);
 
         return containerView;
     }
@@ -232,23 +248,25 @@ public class MediaPlayerContainer extends Fragment {
     private PlayerView createPlayerView(@NonNull LayoutInflater inflater, View container) {
         View videoView = inflater.inflate(R.layout.media_player_controller_view, (ViewGroup) container, true);
 
-        PlayerView _playerView = videoView.findViewById(R.id.MediaPlayerControllerView);
+        PlayerView playerView = videoView.findViewById(R.id.MediaPlayerControllerView);
 
-        _playerView.findViewById(androidx.media3.ui.R.id.exo_repeat_toggle).setVisibility(View.GONE);
-        _playerView.findViewById(androidx.media3.ui.R.id.exo_fullscreen).setVisibility(View.GONE);
-        _playerView.findViewById(androidx.media3.ui.R.id.exo_minimal_fullscreen).setVisibility(View.GONE);
-        _playerView.findViewById(androidx.media3.ui.R.id.exo_extra_controls_scroll_view).setVisibility(View.VISIBLE);
+        playerView.findViewById(androidx.media3.ui.R.id.exo_repeat_toggle).setVisibility(View.GONE);
+        playerView.findViewById(androidx.media3.ui.R.id.exo_fullscreen).setVisibility(View.GONE);
+        playerView.findViewById(androidx.media3.ui.R.id.exo_minimal_fullscreen).setVisibility(View.GONE);
+        playerView.findViewById(androidx.media3.ui.R.id.exo_extra_controls_scroll_view).setVisibility(View.VISIBLE);
 
-        _playerView.findViewById(androidx.media3.ui.R.id.exo_bottom_bar).setVisibility(View.VISIBLE);
-        _playerView.findViewById(androidx.media3.ui.R.id.exo_rew_with_amount).setVisibility(View.VISIBLE);
-        _playerView.findViewById(androidx.media3.ui.R.id.exo_ffwd_with_amount).setVisibility(View.VISIBLE);
-        _playerView.findViewById(androidx.media3.ui.R.id.exo_next).setVisibility(View.GONE);
-        _playerView.findViewById(androidx.media3.ui.R.id.exo_prev).setVisibility(View.GONE);
+        playerView.findViewById(androidx.media3.ui.R.id.exo_bottom_bar).setVisibility(View.VISIBLE);
+        playerView.findViewById(androidx.media3.ui.R.id.exo_rew_with_amount).setVisibility(View.VISIBLE);
+        playerView.findViewById(androidx.media3.ui.R.id.exo_ffwd_with_amount).setVisibility(View.VISIBLE);
+        playerView.setShowNextButton(false);
+        playerView.setShowPreviousButton(false);
+        // Suspended players are stopped, their last frame stays up until they are resumed.
+        playerView.setKeepContentOnPlayerReset(true);
 
-        ProgressBar buffering = _playerView.findViewById(androidx.media3.ui.R.id.exo_buffering);
+        ProgressBar buffering = playerView.findViewById(androidx.media3.ui.R.id.exo_buffering);
         buffering.setIndeterminateTintList(ColorStateList.valueOf(Color.WHITE));
 
-        LinearLayout basicControls = _playerView.findViewById(androidx.media3.ui.R.id.exo_basic_controls);
+        LinearLayout basicControls = playerView.findViewById(androidx.media3.ui.R.id.exo_basic_controls);
         View extraControls = inflater.inflate(R.layout.media_player_controller_view_extra_buttons, basicControls, true);
 
         MediaRouteButton _castButton = extraControls.findViewById(R.id.cast_button);
@@ -271,13 +289,13 @@ public class MediaPlayerContainer extends Fragment {
         });
 
         if (!_extra.showControls) {
-            _playerView.setUseController(false);
+            playerView.setUseController(false);
         } else {
-            _playerView.setControllerShowTimeoutMs(1250);
-            _playerView.setControllerHideOnTouch(true);
+            playerView.setControllerShowTimeoutMs(1250);
+            playerView.setControllerHideOnTouch(true);
         }
 
-        SubtitleView subtitleView = _playerView.findViewById(androidx.media3.ui.R.id.exo_subtitles);
+        SubtitleView subtitleView = playerView.findViewById(androidx.media3.ui.R.id.exo_subtitles);
 
         if (subtitleView != null && _extra.subtitles != null) {
             subtitleView.setStyle(
@@ -293,40 +311,40 @@ public class MediaPlayerContainer extends Fragment {
             subtitleView.setFixedTextSize(TypedValue.COMPLEX_UNIT_DIP, _extra.subtitles.settings.fontSize.floatValue());
         }
 
-        _playerView.setOnKeyListener((eventContainer, keyCode, keyEvent) -> {
-            if (_playerController != null && keyEvent.getAction() == KeyEvent.ACTION_UP) {
-                long duration = _playerController.getDuration();
-                long videoPosition = _playerController.getCurrentPosition();
+        playerView.setOnKeyListener((eventContainer, keyCode, keyEvent) -> {
+            if (_player != null && keyEvent.getAction() == KeyEvent.ACTION_UP) {
+                long duration = _player.getDuration();
+                long videoPosition = _player.getCurrentPosition();
                 switch (keyCode) {
                     case KeyEvent.KEYCODE_DPAD_RIGHT:
                         if (videoPosition < duration - MediaPlayer.VIDEO_STEP) {
-                            _playerController.seekTo(videoPosition + MediaPlayer.VIDEO_STEP);
+                            _player.seekTo(videoPosition + MediaPlayer.VIDEO_STEP);
                         }
                         return true;
                     case KeyEvent.KEYCODE_DPAD_LEFT:
                         if (videoPosition - MediaPlayer.VIDEO_STEP > 0) {
-                            _playerController.seekTo(videoPosition - MediaPlayer.VIDEO_STEP);
+                            _player.seekTo(videoPosition - MediaPlayer.VIDEO_STEP);
                         } else {
-                            _playerController.seekTo(0);
+                            _player.seekTo(0);
                         }
                         return true;
                     case KeyEvent.KEYCODE_DPAD_CENTER:
-                        if (_playerController.isPlaying()) {
-                            _playerController.pause();
+                        if (_player.isPlaying()) {
+                            _player.pause();
                         } else {
-                            _playerController.play();
+                            _player.play();
                         }
                         return true;
                     case KeyEvent.KEYCODE_MEDIA_FAST_FORWARD:
                         if (videoPosition < duration - (MediaPlayer.VIDEO_STEP * 2)) {
-                            _playerController.seekTo(videoPosition + (MediaPlayer.VIDEO_STEP * 2));
+                            _player.seekTo(videoPosition + (MediaPlayer.VIDEO_STEP * 2));
                         }
                         return true;
                     case KeyEvent.KEYCODE_MEDIA_REWIND:
                         if (videoPosition - (MediaPlayer.VIDEO_STEP * 2) > 0) {
-                            _playerController.seekTo(videoPosition - (MediaPlayer.VIDEO_STEP * 2));
+                            _player.seekTo(videoPosition - (MediaPlayer.VIDEO_STEP * 2));
                         } else {
-                            _playerController.seekTo(0);
+                            _player.seekTo(0);
                         }
                         return true;
                 }
@@ -334,29 +352,94 @@ public class MediaPlayerContainer extends Fragment {
             return false;
         });
 
-        _mediaPlayerState.fullscreenState.observe(state ->
-            ((ImageButton) _playerView.findViewById(R.id.toggle_fullscreen)).setImageResource(
+        _mediaPlayerState.fullscreenState.observe(getViewLifecycleOwner(), state ->
+            ((ImageButton) playerView.findViewById(R.id.toggle_fullscreen)).setImageResource(
                     state == UI_STATE.ACTIVE ? R.drawable.ic_fullscreen_exit : R.drawable.ic_fullscreen_enter
                 )
         );
-        _mediaPlayerState.pipState.observe(state -> {
+        _mediaPlayerState.pipState.observe(getViewLifecycleOwner(), state -> {
             switch (state) {
-                case WILL_ENTER -> _playerView.setUseController(false);
-                case WILL_EXIT -> _playerView.setUseController(_extra.showControls);
+                case WILL_ENTER -> playerView.setUseController(false);
+                case WILL_EXIT -> playerView.setUseController(_extra.showControls);
             }
         });
-        _mediaPlayerState.canCast.observe(isCastAvailable -> {
-            _playerView.findViewById(R.id.cast_button).setVisibility(isCastAvailable ? View.VISIBLE : View.GONE);
-            _playerView.findViewById(R.id.cast_button).setEnabled(isCastAvailable);
+        _mediaPlayerState.canCast.observe(getViewLifecycleOwner(), isCastAvailable -> {
+            playerView.findViewById(R.id.cast_button).setVisibility(isCastAvailable ? View.VISIBLE : View.GONE);
+            playerView.findViewById(R.id.cast_button).setEnabled(isCastAvailable);
         });
-        _mediaPlayerState.showSubtitles.observe(showSubtitles ->
-            _playerView.findViewById(androidx.media3.ui.R.id.exo_subtitle).setVisibility(showSubtitles ? View.VISIBLE : View.GONE)
+        _mediaPlayerState.showSubtitles.observe(getViewLifecycleOwner(), showSubtitles ->
+            playerView.findViewById(androidx.media3.ui.R.id.exo_subtitle).setVisibility(showSubtitles ? View.VISIBLE : View.GONE)
         );
 
-        return _playerView;
+        return playerView;
     }
 
-    private void updateEmbeddedLayout() {
+    @Override
+    public void onDestroyView() {
+        _player.removeListener(_queueListener);
+        ViewTreeObserver viewTreeObserver = requireView().getViewTreeObserver();
+        if (viewTreeObserver.isAlive()) {
+            viewTreeObserver.removeOnGlobalLayoutListener(_layoutListener);
+            viewTreeObserver.removeOnScrollChangedListener(_scrollListener);
+        }
+        _playerView.setPlayer(null);
+        super.onDestroyView();
+    }
+
+    @Override
+    public void onHiddenChanged(boolean hidden) {
+        super.onHiddenChanged(hidden);
+        updateHiddenState();
+    }
+
+    // Hidden means no pixel of the player can be seen, scrolled out, clipped away or in a hidden parent.
+    private void updateHiddenState() {
+        if (_embeddedView == null) {
+            return;
+        }
+        boolean isHidden = !_embeddedView.isShown() || !_embeddedView.getGlobalVisibleRect(_visibleRect);
+        _mediaPlayerState.hiddenState.set(isHidden ? UI_STATE.ACTIVE : UI_STATE.INACTIVE);
+    }
+
+    // Next and previous only make sense once the player has been given a queue.
+    @OptIn(markerClass = UnstableApi.class)
+    private void updateQueueControls() {
+        boolean hasQueue = _player.getMediaItemCount() > 1;
+        _playerView.setShowNextButton(hasQueue);
+        _playerView.setShowPreviousButton(hasQueue);
+    }
+
+    // New layout params only apply on the next layout pass, so the bounds are read once it has run.
+    private void updateSourceRectHintAfterLayout() {
+        _embeddedView.addOnLayoutChangeListener(
+            new View.OnLayoutChangeListener() {
+                @Override
+                public void onLayoutChange(
+                    View view,
+                    int left,
+                    int top,
+                    int right,
+                    int bottom,
+                    int oldLeft,
+                    int oldTop,
+                    int oldRight,
+                    int oldBottom
+                ) {
+                    view.removeOnLayoutChangeListener(this);
+                    view.getGlobalVisibleRect(_sourceRectHint);
+                    _mediaPlayerState.sourceRectHint.set(new Rect(_sourceRectHint));
+                }
+            }
+        );
+    }
+
+    private void updateEmbeddedLayout(boolean isFullscreen) {
+        if (isFullscreen) {
+            _embeddedView.setLayoutParams(
+                new RelativeLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT)
+            );
+            return;
+        }
         // Create layout parameters with the desired width and height.
         RelativeLayout.LayoutParams params = new RelativeLayout.LayoutParams(_placement.width, _placement.height);
         // Apply horizontal alignment and margins.
@@ -420,23 +503,37 @@ public class MediaPlayerContainer extends Fragment {
 
     @Override
     public void onPause() {
+        if (!_android.enableBackgroundPlay && _mediaPlayerState.pipState.get() != UI_STATE.ACTIVE) {
+            _player.pause();
+        }
+
+        super.onPause();
+    }
+
+    // Paused alone isn't background, dialogs, permission prompts and multi-window pause the activity while the
+    // player is still on screen. Only once it is stopped nothing of it can be seen.
+    @Override
+    public void onStop() {
+        boolean isInPictureInPicture =
+            (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && requireActivity().isInPictureInPictureMode()) ||
+            _mediaPlayerState.pipState.get() == UI_STATE.ACTIVE;
+        _mediaPlayerState.backgroundState.set(isInPictureInPicture ? UI_STATE.INACTIVE : UI_STATE.ACTIVE);
         if (_android.enableBackgroundPlay) {
             MediaPlayerNotificationCenter.post(
                 MediaPlayerNotification.create(_playerId, MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_BACKGROUND_PLAYING)
                     .addData("isPlayingInBackground", true)
                     .build()
             );
-        } else {
-            if (_mediaPlayerState.pipState.get() != UI_STATE.ACTIVE) {
-                _playerController.pause();
-            }
         }
 
-        super.onPause();
+        super.onStop();
     }
 
     @Override
-    public void onResume() {
+    public void onStart() {
+        super.onStart();
+
+        _mediaPlayerState.backgroundState.set(UI_STATE.INACTIVE);
         if (_android.enableBackgroundPlay) {
             MediaPlayerNotificationCenter.post(
                 MediaPlayerNotification.create(_playerId, MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_BACKGROUND_PLAYING)
@@ -444,7 +541,5 @@ public class MediaPlayerContainer extends Fragment {
                     .build()
             );
         }
-
-        super.onResume();
     }
 }
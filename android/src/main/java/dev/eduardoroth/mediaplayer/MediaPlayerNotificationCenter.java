@@ -1,12 +1,16 @@
 package dev.eduardoroth.mediaplayer;
 
+import android.os.Handler;
+import android.os.Looper;
 import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.LifecycleOwner;
-import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 import com.getcapacitor.JSObject;
-import java.util.ArrayList;
-import java.util.List;
+import dev.eduardoroth.mediaplayer.core.NotificationQueue;
+import dev.eduardoroth.mediaplayer.models.NotificationOptions;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class MediaPlayerNotificationCenter extends ViewModel {
 
@@ -53,82 +57,171 @@ public class MediaPlayerNotificationCenter extends ViewModel {
                 return "MediaPlayer:Seek";
             }
         },
-        MEDIA_PLAYER_TIME_UPDATED {
+        MEDIA_PLAYER_TIME_UPDATED(true) {
             @NonNull
             @Override
             public String toString() {
                 return "MediaPlayer:TimeUpdated";
             }
         },
-        MEDIA_PLAYER_FULLSCREEN {
+        MEDIA_PLAYER_FULLSCREEN(true) {
             @NonNull
             @Override
             public String toString() {
                 return "MediaPlayer:FullScreen";
             }
         },
-        MEDIA_PLAYER_PIP {
+        MEDIA_PLAYER_PIP(true) {
             @NonNull
             @Override
             public String toString() {
                 return "MediaPlayer:PictureInPicture";
             }
         },
-        MEDIA_PLAYER_BACKGROUND_PLAYING {
+        MEDIA_PLAYER_BACKGROUND_PLAYING(true) {
             @NonNull
             @Override
             public String toString() {
                 return "MediaPlayer:isPlayingInBackground";
             }
+        },
+        MEDIA_PLAYER_ITEM_CHANGED {
+            @NonNull
+            @Override
+            public String toString() {
+                return "MediaPlayer:ItemChanged";
+            }
+        },
+        MEDIA_PLAYER_DOWNLOAD(true) {
+            @NonNull
+            @Override
+            public String toString() {
+                return "MediaPlayer:Download";
+            }
+        },
+        MEDIA_PLAYER_STATS(true) {
+            @NonNull
+            @Override
+            public String toString() {
+                return "MediaPlayer:Stats";
+            }
+        },
+        MEDIA_PLAYER_SUSPENDED {
+            @NonNull
+            @Override
+            public String toString() {
+                return "MediaPlayer:Suspended";
+            }
+        };
+
+        private final boolean _coalescable;
+
+        NOTIFICATION_TYPE() {
+            this(false);
+        }
+
+        NOTIFICATION_TYPE(boolean coalescable) {
+            _coalescable = coalescable;
+        }
+
+        // Only events that describe the latest state of a player can replace a pending one of the same type.
+        public boolean isCoalescable() {
+            return _coalescable;
         }
     }
 
-    public record CapacitorNotification(String getEventName, JSObject getData) {}
+    public record CapacitorNotification(String getEventName, JSObject getData, String getCoalesceKey) {}
 
     public interface OnNextNotification {
         void send(CapacitorNotification notification);
     }
 
+    public interface HasListeners {
+        boolean check(String eventName);
+    }
+
     private final LifecycleOwner _owner;
-    private final List<CapacitorNotification> _notifications = new ArrayList<>();
-    private final MutableLiveData<ArrayList<CapacitorNotification>> _pendingNotifications = new MutableLiveData<>(new ArrayList<>());
+    private final NotificationOptions _options;
+    private final Handler _handler = new Handler(Looper.getMainLooper());
+    private final NotificationQueue<CapacitorNotification> _pendingNotifications;
+    private final AtomicBoolean _isDrainScheduled = new AtomicBoolean(false);
+    private final Runnable _drain = this::drain;
+    private OnNextNotification _onNextNotification;
+    private HasListeners _hasListeners;
     private static MediaPlayerNotificationCenter _notificationCenter;
 
-    private MediaPlayerNotificationCenter(LifecycleOwner owner) {
+    private MediaPlayerNotificationCenter(LifecycleOwner owner, NotificationOptions options) {
         _owner = owner;
+        _options = options;
+        _pendingNotifications = new NotificationQueue<>(
+            options.capacity,
+            options.overflowPolicy == NotificationOptions.OVERFLOW_POLICY.COALESCE
+        );
     }
 
-    public static void init(LifecycleOwner owner) {
-        _notificationCenter = new MediaPlayerNotificationCenter(owner);
+    public static void init(LifecycleOwner owner, NotificationOptions options) {
+        _notificationCenter = new MediaPlayerNotificationCenter(owner, options);
+        owner
+            .getLifecycle()
+            .addObserver(
+                new DefaultLifecycleObserver() {
+                    @Override
+                    public void onStart(@NonNull LifecycleOwner lifecycleOwner) {
+                        _notificationCenter.scheduleDrain();
+                    }
+                }
+            );
     }
 
-    public static void listenNotifications(OnNextNotification onNextNotification) {
+    public static void listenNotifications(OnNextNotification onNextNotification, HasListeners hasListeners) {
         if (_notificationCenter == null) {
             throw new Error("You need to initialize the Notification Center before using it");
         }
-        _notificationCenter._pendingNotifications.observe(_notificationCenter._owner, pendingNotifications -> {
-            if (!pendingNotifications.isEmpty()) {
-                CapacitorNotification nextNotification = pendingNotifications.get(0);
-                if (nextNotification != null) {
-                    onNextNotification.send(nextNotification);
-
-                    ArrayList<CapacitorNotification> updatedList = _notificationCenter._pendingNotifications.getValue();
-                    assert updatedList != null;
-                    updatedList.remove(0);
-                    _notificationCenter._pendingNotifications.setValue(updatedList);
-                }
-            }
-        });
+        _notificationCenter._onNextNotification = onNextNotification;
+        _notificationCenter._hasListeners = hasListeners;
+        _notificationCenter.scheduleDrain();
+    }
+
+    public static boolean hasListeners(NOTIFICATION_TYPE notificationType) {
+        if (_notificationCenter == null || _notificationCenter._hasListeners == null) {
+            return false;
+        }
+        return _notificationCenter._hasListeners.check(notificationType.toString());
     }
 
+    // Safe to call from any thread, notifications are delivered on the main looper.
     public static void post(CapacitorNotification notification) {
         if (_notificationCenter == null) {
             throw new Error("You need to initialize the Notification Center before using it");
         }
-        _notificationCenter._notifications.add(notification);
-        ArrayList<CapacitorNotification> updatedList = _notificationCenter._pendingNotifications.getValue();
-        assert updatedList != null;
-        updatedList.add(notification);
-        _notificationCenter._pendingNotifications.setValue(updatedList);
+        _notificationCenter.enqueue(notification);
+    }
+
+    private void enqueue(CapacitorNotification notification) {
+        _pendingNotifications.offer(notification, notification.getCoalesceKey());
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (!_pendingNotifications.isEmpty() && _isDrainScheduled.compareAndSet(false, true)) {
+            _handler.post(_drain);
+        }
+    }
+
+    private void drain() {
+        if (_onNextNotification == null || !_owner.getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED)) {
+            // Delivery resumes from the lifecycle observer or once a listener is set.
+            _isDrainScheduled.set(false);
+            return;
+        }
+        for (int sent = 0; sent < _options.batchSize; sent++) {
+            CapacitorNotification notification = _pendingNotifications.poll();
+            if (notification == null) {
+                break;
+            }
+            _onNextNotification.send(notification);
+        }
+        _isDrainScheduled.set(false);
+        scheduleDrain();
     }
 }
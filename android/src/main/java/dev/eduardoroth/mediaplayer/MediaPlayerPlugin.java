@@ -1,32 +1,63 @@
 package dev.eduardoroth.mediaplayer;
 
 import android.util.DisplayMetrics;
-import android.util.Rational;
 import android.view.ViewGroup;
 import androidx.fragment.app.FragmentContainerView;
+import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
 import com.getcapacitor.annotation.CapacitorPlugin;
+import dev.eduardoroth.mediaplayer.core.PlayerSizing;
 import dev.eduardoroth.mediaplayer.models.AndroidOptions;
+import dev.eduardoroth.mediaplayer.models.BatchCommand;
+import dev.eduardoroth.mediaplayer.models.BufferProfile;
+import dev.eduardoroth.mediaplayer.models.CacheOptions;
+import dev.eduardoroth.mediaplayer.models.DownloadOptions;
 import dev.eduardoroth.mediaplayer.models.ExtraOptions;
+import dev.eduardoroth.mediaplayer.models.HttpOptions;
+import dev.eduardoroth.mediaplayer.models.NotificationOptions;
 import dev.eduardoroth.mediaplayer.models.PlacementOptions;
+import dev.eduardoroth.mediaplayer.models.PlayerPoolOptions;
+import dev.eduardoroth.mediaplayer.models.PlayerPreset;
+import dev.eduardoroth.mediaplayer.models.PreloadOptions;
+import dev.eduardoroth.mediaplayer.models.QueueItem;
 import dev.eduardoroth.mediaplayer.models.SubtitleOptions;
+import dev.eduardoroth.mediaplayer.player.MediaPlayerBandwidthMeter;
+import dev.eduardoroth.mediaplayer.player.MediaPlayerCache;
+import dev.eduardoroth.mediaplayer.player.MediaPlayerDownloadManager;
+import dev.eduardoroth.mediaplayer.player.MediaPlayerHttpDataSource;
+import dev.eduardoroth.mediaplayer.player.MediaPlayerPool;
+import dev.eduardoroth.mediaplayer.player.MediaPlayerPreloader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import org.json.JSONException;
+import org.json.JSONObject;
 
 @CapacitorPlugin(name = "MediaPlayer")
 public class MediaPlayerPlugin extends Plugin {
 
     private MediaPlayer implementation;
+    private final ConcurrentHashMap<String, PlayerPreset> _presets = new ConcurrentHashMap<>();
 
     @Override
     public void load() {
         implementation = new MediaPlayer(bridge.getActivity());
-        MediaPlayerNotificationCenter.init(bridge.getActivity());
-        MediaPlayerNotificationCenter.listenNotifications(nextNotification ->
-            notifyListeners(nextNotification.getEventName(), nextNotification.getData())
+        MediaPlayerNotificationCenter.init(bridge.getActivity(), NotificationOptions.fromConfig(getConfig().getObject("notifications")));
+        MediaPlayerBandwidthMeter.init(bridge.getContext());
+        MediaPlayerHttpDataSource.init(HttpOptions.fromConfig(getConfig().getObject("http")));
+        MediaPlayerCache.init(bridge.getContext(), CacheOptions.fromConfig(getConfig().getObject("cache")));
+        MediaPlayerDownloadManager.init(bridge.getContext(), DownloadOptions.fromConfig(getConfig().getObject("downloads")));
+        MediaPlayerPool.init(bridge.getContext(), PlayerPoolOptions.fromConfig(getConfig().getObject("playerPool")));
+        MediaPlayerPreloader.init(PreloadOptions.fromConfig(getConfig().getObject("preload")));
+        MediaPlayerNotificationCenter.listenNotifications(
+            nextNotification -> notifyListeners(nextNotification.getEventName(), nextNotification.getData()),
+            this::hasListeners
         );
 
         ViewGroup coordinatorLayout = (ViewGroup) bridge.getActivity().findViewById(R.id.webview).getParent();
@@ -35,6 +66,12 @@ public class MediaPlayerPlugin extends Plugin {
         coordinatorLayout.addView(fragmentContainerView);
     }
 
+    @Override
+    protected void handleOnStop() {
+        super.handleOnStop();
+        MediaPlayerBandwidthMeter.persist();
+    }
+
     @PluginMethod
     public void create(final PluginCall call) {
         String playerId = call.getString("playerId");
@@ -59,123 +96,70 @@ public class MediaPlayerPlugin extends Plugin {
         JSObject placementOptions = call.getObject("placement");
         JSObject androidOptions = call.getObject("android");
         JSObject extraOptions = call.getObject("extra");
-        JSObject subtitleOptions = extraOptions != null ? extraOptions.getJSObject("subtitles") : null;
 
         DisplayMetrics metrics = bridge.getContext().getResources().getDisplayMetrics();
 
-        String videoOrientation = placementOptions != null ? placementOptions.getString("videoOrientation", "HORIZONTAL") : "HORIZONTAL";
-        String horizontalAlignment = placementOptions != null ? placementOptions.getString("horizontalAlignment", "CENTER") : "CENTER";
-        String verticalAlignment = placementOptions != null ? placementOptions.getString("verticalAlignment", "TOP") : "TOP";
-
-        Integer paramHorizontalMargin = placementOptions != null ? placementOptions.getInteger("horizontalMargin", null) : null;
-        Integer paramVerticalMargin = placementOptions != null ? placementOptions.getInteger("verticalMargin", null) : null;
-
-        int horizontalMargin = paramHorizontalMargin != null ? (int) (paramHorizontalMargin * metrics.density) : 0;
-        int verticalMargin = paramVerticalMargin != null ? (int) (paramVerticalMargin * metrics.density) : 0;
-
-        Integer paramHeight = placementOptions != null ? placementOptions.getInteger("height", null) : null;
-        Integer paramWidth = placementOptions != null ? placementOptions.getInteger("width", null) : null;
-
-        int height;
-        int width;
-
-        if (paramHeight != null && paramWidth != null) {
-            width = (int) (paramWidth * metrics.density);
-            height = (int) (paramHeight * metrics.density);
-        } else if (paramHeight == null && paramWidth == null) {
-            if (Objects.equals(videoOrientation, "HORIZONTAL")) {
-                width = metrics.widthPixels;
-                height = (int) (width * (new Rational(9, 16).floatValue()));
-            } else {
-                height = metrics.heightPixels;
-                width = (int) (height * (new Rational(9, 16).floatValue()));
-            }
-        } else if (paramHeight != null) {
-            height = (int) (paramHeight * metrics.density);
-            if (Objects.equals(videoOrientation, "HORIZONTAL")) {
-                width = (int) (paramHeight * metrics.density * (new Rational(16, 9).floatValue()));
-            } else {
-                width = (int) (paramHeight * metrics.density * (new Rational(9, 16).floatValue()));
-            }
-        } else {
-            width = (int) (paramWidth * metrics.density);
-            if (Objects.equals(videoOrientation, "HORIZONTAL")) {
-                height = (int) (width * (new Rational(16, 9).floatValue()));
-            } else {
-                height = (int) (width * (new Rational(9, 16).floatValue()));
+        String presetName = call.getString("preset");
+        if (presetName != null) {
+            PlayerPreset preset = _presets.get(presetName);
+            if (preset == null) {
+                JSObject ret = new JSObject();
+                ret.put("method", "create");
+                ret.put("result", false);
+                ret.put("message", "Preset not found " + presetName);
+                call.resolve(ret);
+                return;
             }
-        }
-
-        if (width + horizontalMargin > metrics.widthPixels) {
-            width = metrics.widthPixels - horizontalMargin;
-            if (Objects.equals(videoOrientation, "HORIZONTAL")) {
-                height = (int) (width * (new Rational(9, 16).floatValue()));
-            } else {
-                height = (int) (width * (new Rational(16, 9).floatValue()));
-            }
-        }
-        if (height + verticalMargin > metrics.heightPixels) {
-            height = metrics.heightPixels - verticalMargin;
-            if (Objects.equals(videoOrientation, "HORIZONTAL")) {
-                width = (int) (height * (new Rational(16, 9).floatValue()));
-            } else {
-                width = (int) (height * (new Rational(9, 16).floatValue()));
+            // Only the sections sent along with the preset are parsed again, merged over the preset values.
+            if (placementOptions == null && !preset.isSizedFor(metrics.widthPixels, metrics.heightPixels, metrics.density)) {
+                preset = compilePreset(preset.placementOptions(), preset.androidOptions(), preset.extraOptions(), metrics);
+                _presets.put(presetName, preset);
             }
+            PlacementOptions placement = placementOptions == null
+                ? preset.placement()
+                : getPlacementOptions(mergeOptions(preset.placementOptions(), placementOptions), metrics);
+            AndroidOptions android = androidOptions == null
+                ? preset.android()
+                : getAndroidOptions(mergeOptions(preset.androidOptions(), androidOptions));
+            ExtraOptions extra = extraOptions == null ? preset.extra() : getExtraOptions(mergeOptions(preset.extraOptions(), extraOptions));
+            bridge.getActivity().runOnUiThread(() -> implementation.create(call, playerId, url, placement, android, extra));
+            return;
         }
 
-        PlacementOptions placement = new PlacementOptions(
-            height,
-            width,
-            videoOrientation,
-            horizontalAlignment,
-            verticalAlignment,
-            horizontalMargin,
-            verticalMargin
-        );
-
-        AndroidOptions android = new AndroidOptions(
-            androidOptions == null || androidOptions.optBoolean("enableChromecast", true),
-            androidOptions == null || androidOptions.optBoolean("enablePiP", true),
-            androidOptions == null || androidOptions.optBoolean("enableBackgroundPlay", true),
-            androidOptions != null && androidOptions.optBoolean("openInFullscreen", false),
-            androidOptions != null && androidOptions.optBoolean("automaticallyEnterPiP", false),
-            androidOptions == null || androidOptions.optBoolean("fullscreenOnLandscape", true),
-            androidOptions == null || androidOptions.optBoolean("stopOnTaskRemoved", false)
-        );
+        PlacementOptions placement = getPlacementOptions(placementOptions, metrics);
+        AndroidOptions android = getAndroidOptions(androidOptions);
+        ExtraOptions extra = getExtraOptions(extraOptions);
+        bridge.getActivity().runOnUiThread(() -> implementation.create(call, playerId, url, placement, android, extra));
+    }
 
-        SubtitleOptions subtitles = null;
-        if (subtitleOptions != null) {
-            double fontSize = Double.parseDouble("12");
-            try {
-                fontSize = subtitleOptions.getDouble("fontSize");
-            } catch (NullPointerException | JSONException ignored) {}
-            subtitles = new SubtitleOptions(
-                subtitleOptions.getString("url", null),
-                subtitleOptions.getString("language", "English"),
-                subtitleOptions.getString("foregroundColor", null),
-                subtitleOptions.getString("backgroundColor", null),
-                fontSize
-            );
+    @PluginMethod
+    public void registerPreset(final PluginCall call) {
+        String name = call.getString("name");
+        if (name == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "registerPreset");
+            ret.put("result", false);
+            ret.put("message", "Must provide a name");
+            call.resolve(ret);
+            return;
         }
-
-        double rate = 1;
-        try {
-            rate = extraOptions.getDouble("rate");
-        } catch (NullPointerException | JSONException ignored) {}
-
-        ExtraOptions extra = new ExtraOptions(
-            extraOptions != null ? extraOptions.getString("title") : null,
-            extraOptions != null ? extraOptions.getString("subtitle") : null,
-            extraOptions != null ? extraOptions.getString("poster", null) : null,
-            extraOptions != null ? extraOptions.getString("artist", null) : null,
-            rate,
-            subtitles,
-            extraOptions != null && extraOptions.optBoolean("autoPlayWhenReady", false),
-            extraOptions != null && extraOptions.optBoolean("loopOnEnd", false),
-            extraOptions == null || extraOptions.optBoolean("showControls", true),
-            extraOptions != null ? extraOptions.getJSObject("headers") : null
-        );
-        bridge.getActivity().runOnUiThread(() -> implementation.create(call, playerId, url, placement, android, extra));
+        JSObject placementOptions = call.getObject("placement");
+        String invalidOption = validatePlacementOptions(placementOptions);
+        if (invalidOption != null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "registerPreset");
+            ret.put("result", false);
+            ret.put("message", invalidOption);
+            call.resolve(ret);
+            return;
+        }
+        DisplayMetrics metrics = bridge.getContext().getResources().getDisplayMetrics();
+        _presets.put(name, compilePreset(placementOptions, call.getObject("android"), call.getObject("extra"), metrics));
+        JSObject ret = new JSObject();
+        ret.put("method", "registerPreset");
+        ret.put("result", true);
+        ret.put("value", name);
+        call.resolve(ret);
     }
 
     @PluginMethod
@@ -217,7 +201,7 @@ public class MediaPlayerPlugin extends Plugin {
             call.resolve(ret);
             return;
         }
-        bridge.getActivity().runOnUiThread(() -> implementation.getDuration(call, playerId));
+        implementation.getDuration(call, playerId);
     }
 
     @PluginMethod
@@ -231,7 +215,7 @@ public class MediaPlayerPlugin extends Plugin {
             call.resolve(ret);
             return;
         }
-        bridge.getActivity().runOnUiThread(() -> implementation.getCurrentTime(call, playerId));
+        implementation.getCurrentTime(call, playerId);
     }
 
     @PluginMethod
@@ -268,7 +252,7 @@ public class MediaPlayerPlugin extends Plugin {
             call.resolve(ret);
             return;
         }
-        bridge.getActivity().runOnUiThread(() -> implementation.isPlaying(call, playerId));
+        implementation.isPlaying(call, playerId);
     }
 
     @PluginMethod
@@ -282,7 +266,7 @@ public class MediaPlayerPlugin extends Plugin {
             call.resolve(ret);
             return;
         }
-        bridge.getActivity().runOnUiThread(() -> implementation.isMuted(call, playerId));
+        implementation.isMuted(call, playerId);
     }
 
     @PluginMethod
@@ -319,7 +303,7 @@ public class MediaPlayerPlugin extends Plugin {
             call.resolve(ret);
             return;
         }
-        bridge.getActivity().runOnUiThread(() -> implementation.getVolume(call, playerId));
+        implementation.getVolume(call, playerId);
     }
 
     @PluginMethod
@@ -356,7 +340,7 @@ public class MediaPlayerPlugin extends Plugin {
             call.resolve(ret);
             return;
         }
-        bridge.getActivity().runOnUiThread(() -> implementation.getRate(call, playerId));
+        implementation.getRate(call, playerId);
     }
 
     @PluginMethod
@@ -382,6 +366,20 @@ public class MediaPlayerPlugin extends Plugin {
         bridge.getActivity().runOnUiThread(() -> implementation.setRate(call, playerId, rate));
     }
 
+    @PluginMethod
+    public void getState(final PluginCall call) {
+        String playerId = call.getString("playerId");
+        if (playerId == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "getState");
+            ret.put("result", false);
+            ret.put("message", "Must provide a PlayerId");
+            call.resolve(ret);
+            return;
+        }
+        implementation.getState(call, playerId);
+    }
+
     @PluginMethod
     public void remove(final PluginCall call) {
         String playerId = call.getString("playerId");
@@ -400,4 +398,483 @@ public class MediaPlayerPlugin extends Plugin {
     public void removeAll(final PluginCall call) {
         bridge.getActivity().runOnUiThread(() -> implementation.removeAll(call));
     }
+
+    @PluginMethod
+    public void executeBatch(final PluginCall call) {
+        JSArray commands = call.getArray("commands");
+        if (commands == null || commands.length() == 0) {
+            JSObject ret = new JSObject();
+            ret.put("method", "executeBatch");
+            ret.put("result", false);
+            ret.put("message", "Must provide at least one command");
+            call.resolve(ret);
+            return;
+        }
+        List<BatchCommand> batch = new ArrayList<>();
+        for (int i = 0; i < commands.length(); i++) {
+            JSONObject command = commands.optJSONObject(i);
+            String playerId = command != null ? command.optString("playerId", null) : null;
+            String name = command != null ? command.optString("command", null) : null;
+            if (playerId == null || name == null) {
+                JSObject ret = new JSObject();
+                ret.put("method", "executeBatch");
+                ret.put("result", false);
+                ret.put("message", "Every command must provide a PlayerId and a command");
+                call.resolve(ret);
+                return;
+            }
+            batch.add(new BatchCommand(playerId, name, command.has("value") ? command.optDouble("value") : null));
+        }
+        bridge.getActivity().runOnUiThread(() -> implementation.executeBatch(call, batch));
+    }
+
+    @PluginMethod
+    public void getBufferInfo(final PluginCall call) {
+        String playerId = call.getString("playerId");
+        if (playerId == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "getBufferInfo");
+            ret.put("result", false);
+            ret.put("message", "Must provide a PlayerId");
+            call.resolve(ret);
+            return;
+        }
+        bridge.getActivity().runOnUiThread(() -> implementation.getBufferInfo(call, playerId));
+    }
+
+    @PluginMethod
+    public void getStats(final PluginCall call) {
+        String playerId = call.getString("playerId");
+        if (playerId == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "getStats");
+            ret.put("result", false);
+            ret.put("message", "Must provide a PlayerId");
+            call.resolve(ret);
+            return;
+        }
+        implementation.getStats(call, playerId);
+    }
+
+    @PluginMethod
+    public void getPlayerPoolStats(final PluginCall call) {
+        bridge.getActivity().runOnUiThread(() -> implementation.getPlayerPoolStats(call));
+    }
+
+    @PluginMethod
+    public void getCacheStats(final PluginCall call) {
+        implementation.getCacheStats(call);
+    }
+
+    @PluginMethod
+    public void clearCache(final PluginCall call) {
+        implementation.clearCache(call);
+    }
+
+    @PluginMethod
+    public void pinCacheEntry(final PluginCall call) {
+        String url = call.getString("url");
+        if (url == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "pinCacheEntry");
+            ret.put("result", false);
+            ret.put("message", "Must provide a URL");
+            call.resolve(ret);
+            return;
+        }
+        implementation.pinCacheEntry(call, url);
+    }
+
+    @PluginMethod
+    public void unpinCacheEntry(final PluginCall call) {
+        String url = call.getString("url");
+        if (url == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "unpinCacheEntry");
+            ret.put("result", false);
+            ret.put("message", "Must provide a URL");
+            call.resolve(ret);
+            return;
+        }
+        implementation.unpinCacheEntry(call, url);
+    }
+
+    @PluginMethod
+    public void setQueue(final PluginCall call) {
+        String playerId = call.getString("playerId");
+        if (playerId == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "setQueue");
+            ret.put("result", false);
+            ret.put("message", "Must provide a PlayerId");
+            call.resolve(ret);
+            return;
+        }
+        List<QueueItem> items = getQueueItems(call.getArray("items"));
+        if (items == null || items.isEmpty()) {
+            JSObject ret = new JSObject();
+            ret.put("method", "setQueue");
+            ret.put("result", false);
+            ret.put("message", "Must provide at least one item with a URL");
+            call.resolve(ret);
+            return;
+        }
+        int startIndex = Math.max(0, Math.min(call.getInt("startIndex", 0), items.size() - 1));
+        bridge.getActivity().runOnUiThread(() -> implementation.setQueue(call, playerId, items, startIndex));
+    }
+
+    @PluginMethod
+    public void addToQueue(final PluginCall call) {
+        String playerId = call.getString("playerId");
+        if (playerId == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "addToQueue");
+            ret.put("result", false);
+            ret.put("message", "Must provide a PlayerId");
+            call.resolve(ret);
+            return;
+        }
+        List<QueueItem> items = getQueueItems(call.getArray("items"));
+        if (items == null || items.isEmpty()) {
+            JSObject ret = new JSObject();
+            ret.put("method", "addToQueue");
+            ret.put("result", false);
+            ret.put("message", "Must provide at least one item with a URL");
+            call.resolve(ret);
+            return;
+        }
+        Integer index = call.getInt("index");
+        bridge.getActivity().runOnUiThread(() -> implementation.addToQueue(call, playerId, items, index));
+    }
+
+    @PluginMethod
+    public void removeFromQueue(final PluginCall call) {
+        String playerId = call.getString("playerId");
+        Integer index = call.getInt("index");
+        if (playerId == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "removeFromQueue");
+            ret.put("result", false);
+            ret.put("message", "Must provide a PlayerId");
+            call.resolve(ret);
+            return;
+        }
+        if (index == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "removeFromQueue");
+            ret.put("result", false);
+            ret.put("message", "Must provide an index");
+            call.resolve(ret);
+            return;
+        }
+        bridge.getActivity().runOnUiThread(() -> implementation.removeFromQueue(call, playerId, index));
+    }
+
+    @PluginMethod
+    public void moveQueueItem(final PluginCall call) {
+        String playerId = call.getString("playerId");
+        Integer from = call.getInt("from");
+        Integer to = call.getInt("to");
+        if (playerId == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "moveQueueItem");
+            ret.put("result", false);
+            ret.put("message", "Must provide a PlayerId");
+            call.resolve(ret);
+            return;
+        }
+        if (from == null || to == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "moveQueueItem");
+            ret.put("result", false);
+            ret.put("message", "Must provide from and to indexes");
+            call.resolve(ret);
+            return;
+        }
+        bridge.getActivity().runOnUiThread(() -> implementation.moveQueueItem(call, playerId, from, to));
+    }
+
+    @PluginMethod
+    public void getQueue(final PluginCall call) {
+        String playerId = call.getString("playerId");
+        if (playerId == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "getQueue");
+            ret.put("result", false);
+            ret.put("message", "Must provide a PlayerId");
+            call.resolve(ret);
+            return;
+        }
+        bridge.getActivity().runOnUiThread(() -> implementation.getQueue(call, playerId));
+    }
+
+    @PluginMethod
+    public void preload(final PluginCall call) {
+        String url = call.getString("url");
+        if (url == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "preload");
+            ret.put("result", false);
+            ret.put("message", "Must provide a URL");
+            call.resolve(ret);
+            return;
+        }
+        ExtraOptions extra = getExtraOptions(call.getObject("extra"));
+        Long duration = call.getLong("duration");
+        Long bitrate = call.getLong("bitrate");
+        implementation.preload(call, url, extra, duration, bitrate);
+    }
+
+    @PluginMethod
+    public void cancelPreload(final PluginCall call) {
+        String url = call.getString("url");
+        if (url == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "cancelPreload");
+            ret.put("result", false);
+            ret.put("message", "Must provide a URL");
+            call.resolve(ret);
+            return;
+        }
+        implementation.cancelPreload(call, url);
+    }
+
+    @PluginMethod
+    public void startDownload(final PluginCall call) {
+        String url = call.getString("url");
+        if (url == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "startDownload");
+            ret.put("result", false);
+            ret.put("message", "Must provide a URL");
+            call.resolve(ret);
+            return;
+        }
+        ExtraOptions extra = getExtraOptions(call.getObject("extra"));
+        Integer maxVideoBitrate = call.getInt("maxVideoBitrate");
+        bridge.getActivity().runOnUiThread(() -> implementation.startDownload(call, url, extra, maxVideoBitrate));
+    }
+
+    @PluginMethod
+    public void pauseDownload(final PluginCall call) {
+        String url = call.getString("url");
+        if (url == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "pauseDownload");
+            ret.put("result", false);
+            ret.put("message", "Must provide a URL");
+            call.resolve(ret);
+            return;
+        }
+        bridge.getActivity().runOnUiThread(() -> implementation.pauseDownload(call, url));
+    }
+
+    @PluginMethod
+    public void resumeDownload(final PluginCall call) {
+        String url = call.getString("url");
+        if (url == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "resumeDownload");
+            ret.put("result", false);
+            ret.put("message", "Must provide a URL");
+            call.resolve(ret);
+            return;
+        }
+        bridge.getActivity().runOnUiThread(() -> implementation.resumeDownload(call, url));
+    }
+
+    @PluginMethod
+    public void removeDownload(final PluginCall call) {
+        String url = call.getString("url");
+        if (url == null) {
+            JSObject ret = new JSObject();
+            ret.put("method", "removeDownload");
+            ret.put("result", false);
+            ret.put("message", "Must provide a URL");
+            call.resolve(ret);
+            return;
+        }
+        bridge.getActivity().runOnUiThread(() -> implementation.removeDownload(call, url));
+    }
+
+    @PluginMethod
+    public void getDownloads(final PluginCall call) {
+        implementation.getDownloads(call);
+    }
+
+    private List<QueueItem> getQueueItems(JSArray items) {
+        if (items == null) {
+            return null;
+        }
+        List<QueueItem> queueItems = new ArrayList<>();
+        for (int i = 0; i < items.length(); i++) {
+            JSONObject item = items.optJSONObject(i);
+            String url = item != null ? item.optString("url", null) : null;
+            if (url == null) {
+                return null;
+            }
+            JSObject extraOptions = null;
+            try {
+                JSONObject extra = item.optJSONObject("extra");
+                extraOptions = extra != null ? JSObject.fromJSONObject(extra) : null;
+            } catch (JSONException ignored) {}
+            queueItems.add(new QueueItem(url, getExtraOptions(extraOptions)));
+        }
+        return queueItems;
+    }
+
+    private PlayerPreset compilePreset(JSObject placementOptions, JSObject androidOptions, JSObject extraOptions, DisplayMetrics metrics) {
+        return new PlayerPreset(
+            placementOptions,
+            androidOptions,
+            extraOptions,
+            getPlacementOptions(placementOptions, metrics),
+            getAndroidOptions(androidOptions),
+            getExtraOptions(extraOptions),
+            metrics.widthPixels,
+            metrics.heightPixels,
+            metrics.density
+        );
+    }
+
+    private String validatePlacementOptions(JSObject placementOptions) {
+        if (placementOptions == null) {
+            return null;
+        }
+        String videoOrientation = placementOptions.getString("videoOrientation", "HORIZONTAL");
+        if (!"HORIZONTAL".equals(videoOrientation) && !"VERTICAL".equals(videoOrientation)) {
+            return "Invalid videoOrientation " + videoOrientation;
+        }
+        String horizontalAlignment = placementOptions.getString("horizontalAlignment", "CENTER");
+        if (!"START".equals(horizontalAlignment) && !"CENTER".equals(horizontalAlignment) && !"END".equals(horizontalAlignment)) {
+            return "Invalid horizontalAlignment " + horizontalAlignment;
+        }
+        String verticalAlignment = placementOptions.getString("verticalAlignment", "TOP");
+        if (!"TOP".equals(verticalAlignment) && !"CENTER".equals(verticalAlignment) && !"BOTTOM".equals(verticalAlignment)) {
+            return "Invalid verticalAlignment " + verticalAlignment;
+        }
+        return null;
+    }
+
+    // Shallow on purpose, nested objects such as subtitles or headers are replaced as a whole.
+    private JSObject mergeOptions(JSObject base, JSObject overrides) {
+        JSObject merged = new JSObject();
+        for (JSObject options : new JSObject[] { base, overrides }) {
+            if (options == null) {
+                continue;
+            }
+            Iterator<String> keys = options.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                merged.put(key, options.opt(key));
+            }
+        }
+        return merged;
+    }
+
+    private PlacementOptions getPlacementOptions(JSObject placementOptions, DisplayMetrics metrics) {
+        String videoOrientation = placementOptions != null ? placementOptions.getString("videoOrientation", "HORIZONTAL") : "HORIZONTAL";
+        String horizontalAlignment = placementOptions != null ? placementOptions.getString("horizontalAlignment", "CENTER") : "CENTER";
+        String verticalAlignment = placementOptions != null ? placementOptions.getString("verticalAlignment", "TOP") : "TOP";
+
+        Integer paramHorizontalMargin = placementOptions != null ? placementOptions.getInteger("horizontalMargin", null) : null;
+        Integer paramVerticalMargin = placementOptions != null ? placementOptions.getInteger("verticalMargin", null) : null;
+
+        int horizontalMargin = paramHorizontalMargin != null ? (int) (paramHorizontalMargin * metrics.density) : 0;
+        int verticalMargin = paramVerticalMargin != null ? (int) (paramVerticalMargin * metrics.density) : 0;
+
+        Integer paramHeight = placementOptions != null ? placementOptions.getInteger("height", null) : null;
+        Integer paramWidth = placementOptions != null ? placementOptions.getInteger("width", null) : null;
+
+        PlayerSizing.Size size = PlayerSizing.fit(
+            paramWidth,
+            paramHeight,
+            Objects.equals(videoOrientation, "HORIZONTAL"),
+            metrics.density,
+            metrics.widthPixels,
+            metrics.heightPixels,
+            horizontalMargin,
+            verticalMargin
+        );
+
+        return new PlacementOptions(
+            size.height(),
+            size.width(),
+            videoOrientation,
+            horizontalAlignment,
+            verticalAlignment,
+            horizontalMargin,
+            verticalMargin
+        );
+    }
+
+    private AndroidOptions getAndroidOptions(JSObject androidOptions) {
+        return new AndroidOptions(
+            androidOptions == null || androidOptions.optBoolean("enableChromecast", true),
+            androidOptions == null || androidOptions.optBoolean("enablePiP", true),
+            androidOptions == null || androidOptions.optBoolean("enableBackgroundPlay", true),
+            androidOptions != null && androidOptions.optBoolean("openInFullscreen", false),
+            androidOptions != null && androidOptions.optBoolean("automaticallyEnterPiP", false),
+            androidOptions == null || androidOptions.optBoolean("fullscreenOnLandscape", true),
+            androidOptions == null || androidOptions.optBoolean("stopOnTaskRemoved", false),
+            BufferProfile.fromOptions(
+                androidOptions != null ? androidOptions.getString("bufferProfile", BufferProfile.DEFAULT) : BufferProfile.DEFAULT,
+                androidOptions != null ? androidOptions.getJSObject("bufferOptions") : null
+            ),
+            androidOptions != null ? androidOptions.optInt("timeUpdateInterval", 100) : 100,
+            androidOptions != null ? androidOptions.optLong("timeUpdateMinDelta", 0) : 0,
+            androidOptions != null && androidOptions.optBoolean("pauseTimeUpdatesWhenHidden", false),
+            androidOptions != null ? androidOptions.optInt("statsInterval", 0) : 0,
+            androidOptions != null && androidOptions.optBoolean("audioOnlyWhenHidden", false)
+        );
+    }
+
+    private ExtraOptions getExtraOptions(JSObject extraOptions) {
+        JSObject subtitleOptions = extraOptions != null ? extraOptions.getJSObject("subtitles") : null;
+        SubtitleOptions subtitles = null;
+        if (subtitleOptions != null) {
+            double fontSize = Double.parseDouble("12");
+            try {
+                fontSize = subtitleOptions.getDouble("fontSize");
+            } catch (NullPointerException | JSONException ignored) {}
+            subtitles = new SubtitleOptions(
+                subtitleOptions.getString("url", null),
+                subtitleOptions.getString("language", "English"),
+                subtitleOptions.getString("foregroundColor", null),
+                subtitleOptions.getString("backgroundColor", null),
+                fontSize
+            );
+        }
+
+        double rate = 1;
+        try {
+            rate = extraOptions.getDouble("rate");
+        } catch (NullPointerException | JSONException ignored) {}
+
+        HashMap<String, String> headers = new HashMap<>();
+        JSObject headerOptions = extraOptions != null ? extraOptions.getJSObject("headers") : null;
+        if (headerOptions != null) {
+            Iterator<String> headerNames = headerOptions.keys();
+            while (headerNames.hasNext()) {
+                String headerName = headerNames.next();
+                String headerValue = headerOptions.getString(headerName);
+                if (headerValue != null) {
+                    headers.put(headerName, headerValue);
+                }
+            }
+        }
+
+        return new ExtraOptions(
+            extraOptions != null ? extraOptions.getString("title") : null,
+            extraOptions != null ? extraOptions.getString("subtitle") : null,
+            extraOptions != null ? extraOptions.getString("poster", null) : null,
+            extraOptions != null ? extraOptions.getString("artist", null) : null,
+            rate,
+            subtitles,
+            extraOptions != null && extraOptions.optBoolean("autoPlayWhenReady", false),
+            extraOptions != null && extraOptions.optBoolean("loopOnEnd", false),
+            extraOptions == null || extraOptions.optBoolean("showControls", true),
+            headers
+        );
+    }
 }
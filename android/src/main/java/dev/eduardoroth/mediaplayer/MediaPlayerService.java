@@ -1,30 +1,26 @@
 package dev.eduardoroth.mediaplayer;
 
-import static android.media.MediaCodec.VIDEO_SCALING_MODE_SCALE_TO_FIT;
-import static androidx.media3.common.C.ALLOW_CAPTURE_BY_SYSTEM;
-import static androidx.media3.common.C.AUDIO_CONTENT_TYPE_MOVIE;
-import static androidx.media3.common.C.USAGE_MEDIA;
-
+import android.content.ComponentCallbacks2;
 import android.content.Intent;
 import android.net.Uri;
-import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
+import android.os.SystemClock;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.OptIn;
 import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.Observer;
 import androidx.lifecycle.ServiceLifecycleDispatcher;
-import androidx.media3.common.AudioAttributes;
+import androidx.media3.common.C;
 import androidx.media3.common.Player;
+import androidx.media3.common.TrackSelectionParameters;
 import androidx.media3.common.util.UnstableApi;
-import androidx.media3.exoplayer.DefaultLoadControl;
+import androidx.media3.common.util.Util;
 import androidx.media3.exoplayer.ExoPlayer;
-import androidx.media3.exoplayer.trackselection.AdaptiveTrackSelection;
-import androidx.media3.exoplayer.trackselection.DefaultTrackSelector;
-import androidx.media3.exoplayer.upstream.DefaultBandwidthMeter;
 import androidx.media3.session.MediaSession;
 import androidx.media3.session.MediaSession.ControllerInfo;
 import androidx.media3.session.MediaSessionService;
@@ -33,59 +29,50 @@ import dev.eduardoroth.mediaplayer.models.ExtraOptions;
 import dev.eduardoroth.mediaplayer.models.MediaItem;
 import dev.eduardoroth.mediaplayer.models.MediaPlayerNotification;
 import dev.eduardoroth.mediaplayer.models.PlacementOptions;
+import dev.eduardoroth.mediaplayer.player.MediaPlayerDownloadManager;
+import dev.eduardoroth.mediaplayer.player.MediaPlayerLoadControl;
+import dev.eduardoroth.mediaplayer.player.MediaPlayerPool;
+import dev.eduardoroth.mediaplayer.state.MediaPlayerSnapshot;
 import dev.eduardoroth.mediaplayer.state.MediaPlayerState;
+import dev.eduardoroth.mediaplayer.state.MediaPlayerState.UI_STATE;
 import dev.eduardoroth.mediaplayer.state.MediaPlayerStateProvider;
+import dev.eduardoroth.mediaplayer.state.MediaPlayerStatsCollector;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 
 public class MediaPlayerService extends MediaSessionService implements LifecycleOwner {
 
     public static long VIDEO_STEP = 10000;
 
+    public static final String SUSPEND_REASON_MEMORY = "memory";
+    public static final String SUSPEND_REASON_PLAYER_CAP = "playerCap";
+
     private final ServiceLifecycleDispatcher mDispatcher = new ServiceLifecycleDispatcher(this);
+    private final HashMap<String, PlayerEventListener> _playerEventListeners = new HashMap<>();
 
     @OptIn(markerClass = UnstableApi.class)
     @Override
     public MediaSession onGetSession(@NonNull ControllerInfo controllerInfo) {
         String playerId = controllerInfo.getConnectionHints().getString("playerId", "no-player-id");
+        MediaSession doesSessionExists = getCurrentSession(playerId);
 
-        MediaSession doesSessionExists = null;
-
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
-            doesSessionExists = this.getSessions().stream().filter(s -> s.getId().equals(playerId)).findFirst().orElse(null);
-        } else {
-            for (int i = 0; i < getSessions().toArray().length; i++) {
-                MediaSession s = (MediaSession) getSessions().toArray()[i];
-                if (s.getId().equals(playerId)) {
-                    doesSessionExists = s;
-                    break;
-                }
-            }
+        String handoffToken = controllerInfo.getConnectionHints().getString("handoffToken");
+        MediaPlayerSessionHandoff.SessionRequest request = MediaPlayerSessionHandoff.take(handoffToken);
+        if (request == null) {
+            // Controllers that didn't come from create can only join a session that already exists.
+            return doesSessionExists;
         }
-
-        String videoUrl = controllerInfo.getConnectionHints().getString("videoUrl");
-        PlacementOptions placement = (PlacementOptions) controllerInfo.getConnectionHints().getSerializable("placement");
-        AndroidOptions android = (AndroidOptions) controllerInfo.getConnectionHints().getSerializable("android");
-        ExtraOptions extra = (ExtraOptions) controllerInfo.getConnectionHints().getSerializable("extra");
-        assert placement != null;
-        assert android != null;
-        assert extra != null;
+        String videoUrl = request.videoUrl();
+        PlacementOptions placement = request.placement();
+        AndroidOptions android = request.android();
+        ExtraOptions extra = request.extra();
 
         if (doesSessionExists != null) {
-            String currentPlayerId = doesSessionExists.getSessionExtras().getString("playerId");
-            if (currentPlayerId != null && currentPlayerId.equalsIgnoreCase(playerId)) {
-                MediaPlayerNotificationCenter.post(
-                    MediaPlayerNotification.create(playerId, MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_READY).build()
-                );
-            } else {
-                MediaPlayerNotificationCenter.post(
-                    MediaPlayerNotification.create(
-                        currentPlayerId,
-                        MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_ENDED
-                    ).build()
-                );
-                doesSessionExists.getPlayer().stop();
-                doesSessionExists.getPlayer().release();
-                doesSessionExists.setPlayer(createPlayer(playerId, videoUrl, android, extra));
-            }
+            MediaPlayerNotificationCenter.post(
+                MediaPlayerNotification.create(playerId, MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_READY).build()
+            );
+            request.onSessionReady().ready(doesSessionExists.getPlayer());
             return doesSessionExists;
         }
 
@@ -102,131 +89,430 @@ public class MediaPlayerService extends MediaSessionService implements Lifecycle
         sessionExtras.putString("videoUrl", videoUrl);
         sessionExtras.putBoolean("stopOnTaskRemoved", android.stopOnTaskRemoved);
 
-        MediaSession playerSession = new MediaSession.Builder(this, createPlayer(playerId, videoUrl, android, extra))
-            .setId(playerId)
-            .setPeriodicPositionUpdateEnabled(true)
+        // Sessions are identified by the create that made them, a removed player can still be releasing its session
+        // when the next create for the same id arrives.
+        MediaSession playerSession = new MediaSession.Builder(this, createPlayer(handoffToken, playerId, videoUrl, android, extra))
+            .setId(handoffToken)
+            .setPeriodicPositionUpdateEnabled(false)
             .setSessionExtras(sessionExtras)
+            .setCallback(
+                new MediaSession.Callback() {
+                    @Override
+                    public void onDisconnected(@NonNull MediaSession session, @NonNull ControllerInfo controller) {
+                        // Only the controller created by the plugin owns the session, system controllers come and go.
+                        String sessionPlayerId = session.getSessionExtras().getString("playerId");
+                        String controllerPlayerId = controller.getConnectionHints().getString("playerId");
+                        if (sessionPlayerId == null || !sessionPlayerId.equals(controllerPlayerId)) {
+                            return;
+                        }
+                        for (ControllerInfo connected : session.getConnectedControllers()) {
+                            if (
+                                !connected.equals(controller) &&
+                                sessionPlayerId.equals(connected.getConnectionHints().getString("playerId"))
+                            ) {
+                                return;
+                            }
+                        }
+                        releaseSession(session);
+                    }
+                }
+            )
             .build();
 
         addSession(playerSession);
+        request.onSessionReady().ready(playerSession.getPlayer());
         return playerSession;
     }
 
     @OptIn(markerClass = UnstableApi.class)
-    private ExoPlayer createPlayer(String playerId, String videoUrl, AndroidOptions android, ExtraOptions extra) {
-        ExoPlayer exoPlayer = new ExoPlayer.Builder(this)
-            .setName(playerId)
-            .setTrackSelector(new DefaultTrackSelector(this, new AdaptiveTrackSelection.Factory()))
-            .setLoadControl(new DefaultLoadControl())
-            .setBandwidthMeter(new DefaultBandwidthMeter.Builder(this).build())
-            .setDeviceVolumeControlEnabled(true)
-            .setSeekBackIncrementMs(VIDEO_STEP)
-            .setSeekForwardIncrementMs(VIDEO_STEP)
-            .setVideoScalingMode(VIDEO_SCALING_MODE_SCALE_TO_FIT)
-            .build();
+    private ExoPlayer createPlayer(String sessionId, String playerId, String videoUrl, AndroidOptions android, ExtraOptions extra) {
+        // Headers are bound to the pooled player, so items queued later through the controller use them as well.
+        ExoPlayer exoPlayer = MediaPlayerPool.acquire(android.bufferProfile, extra.headers);
 
-        exoPlayer.setAudioAttributes(
-            new AudioAttributes.Builder()
-                .setContentType(AUDIO_CONTENT_TYPE_MOVIE)
-                .setAllowedCapturePolicy(ALLOW_CAPTURE_BY_SYSTEM)
-                .setUsage(USAGE_MEDIA)
-                .build(),
-            true
+        exoPlayer.setRepeatMode(extra.loopOnEnd ? Player.REPEAT_MODE_ONE : Player.REPEAT_MODE_OFF);
+        // Start loading the next queued item early enough for the transition to be gapless.
+        exoPlayer.setPreloadConfiguration(
+            new ExoPlayer.PreloadConfiguration(Util.msToUs(android.bufferProfile.bufferForPlaybackAfterRebufferMs))
         );
+        exoPlayer.setMediaItem(MediaPlayerDownloadManager.getPlayableMediaItem(new MediaItem(Uri.parse(videoUrl), extra).getMediaItem()));
+        MediaPlayerState mediaPlayerState = MediaPlayerStateProvider.createState(playerId, this);
+        // Plugin commands use the player directly, the session is left to system media controls and Cast.
+        mediaPlayerState.player.set(exoPlayer);
+        // Room is made before the new player is registered, it must not be the one suspended.
+        enforceActivePlayerCap(1);
+        PlayerEventListener playerEventListener = new PlayerEventListener(playerId, exoPlayer, mediaPlayerState, android, extra);
+        exoPlayer.addListener(playerEventListener);
+        exoPlayer.addAnalyticsListener(playerEventListener.statsCollector);
+        _playerEventListeners.put(sessionId, playerEventListener);
+        MediaPlayerStateProvider.setStatsCollector(playerId, playerEventListener.statsCollector);
 
-        exoPlayer.setRepeatMode(extra.loopOnEnd ? Player.REPEAT_MODE_ONE : Player.REPEAT_MODE_OFF);
+        exoPlayer.prepare();
+        playerEventListener.publishSnapshot();
+        return exoPlayer;
+    }
 
-        exoPlayer.setMediaItem(new MediaItem(Uri.parse(videoUrl), extra).getMediaItem());
-        Handler handlerCurrentTime = new Handler();
-        exoPlayer.addListener(
-            new Player.Listener() {
-                @Override
-                public void onPositionDiscontinuity(
-                    @NonNull Player.PositionInfo oldPosition,
-                    @NonNull Player.PositionInfo newPosition,
-                    int reason
-                ) {
-                    Player.Listener.super.onPositionDiscontinuity(oldPosition, newPosition, reason);
-                    if (reason == Player.DISCONTINUITY_REASON_SEEK) {
-                        MediaPlayerNotificationCenter.post(
-                            MediaPlayerNotification.create(playerId, MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_SEEK)
-                                .addData("previousTime", oldPosition.positionMs / 1000)
-                                .addData("newTime", newPosition.positionMs / 1000)
-                                .build()
-                        );
-                    }
-                }
+    // Suspends the least recently used inactive players until only maxActivePlayers keep their decoders.
+    private void enforceActivePlayerCap(int incomingPlayers) {
+        int maxActivePlayers = MediaPlayerPool.getMaxActivePlayers();
+        if (maxActivePlayers == 0) {
+            return;
+        }
+        int activePlayers = incomingPlayers;
+        for (PlayerEventListener playerEventListener : _playerEventListeners.values()) {
+            if (!playerEventListener.isSuspended()) {
+                activePlayers++;
+            }
+        }
+        if (activePlayers > maxActivePlayers) {
+            suspendInactivePlayers(activePlayers - maxActivePlayers, SUSPEND_REASON_PLAYER_CAP);
+        }
+    }
 
-                @Override
-                public void onIsPlayingChanged(boolean isPlaying) {
-                    if (isPlaying) {
-                        MediaPlayerNotificationCenter.post(
-                            MediaPlayerNotification.create(
-                                playerId,
-                                MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_PLAY
-                            ).build()
-                        );
-                        handlerCurrentTime.postDelayed(
-                            new Runnable() {
-                                @Override
-                                public void run() {
-                                    MediaPlayerNotificationCenter.post(
-                                        MediaPlayerNotification.create(
-                                            playerId,
-                                            MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_TIME_UPDATED
-                                        )
-                                            .addData("currentTime", exoPlayer.getCurrentPosition() / 1000)
-                                            .build()
-                                    );
-                                    handlerCurrentTime.postDelayed(this, 100);
-                                }
-                            },
-                            100
-                        );
-                    } else {
-                        handlerCurrentTime.removeCallbacksAndMessages(null);
-                        MediaPlayerNotificationCenter.post(
-                            MediaPlayerNotification.create(
-                                playerId,
-                                MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_PAUSE
-                            ).build()
-                        );
-                    }
-                }
+    // Least recently used first.
+    private ArrayList<PlayerEventListener> getSuspendCandidates() {
+        ArrayList<PlayerEventListener> candidates = new ArrayList<>();
+        for (PlayerEventListener playerEventListener : _playerEventListeners.values()) {
+            if (playerEventListener.canSuspend()) {
+                candidates.add(playerEventListener);
+            }
+        }
+        Collections.sort(candidates, (first, second) -> Long.compare(first.getLastActiveAt(), second.getLastActiveAt()));
+        return candidates;
+    }
 
-                @Override
-                public void onPlaybackStateChanged(int playbackState) {
-                    Player.Listener.super.onPlaybackStateChanged(playbackState);
-                    switch (playbackState) {
-                        case Player.STATE_BUFFERING:
-                        case Player.STATE_IDLE:
-                            break;
-                        case Player.STATE_ENDED:
-                            MediaPlayerNotificationCenter.post(
-                                MediaPlayerNotification.create(
-                                    playerId,
-                                    MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_ENDED
-                                ).build()
-                            );
-                            break;
-                        case Player.STATE_READY:
-                            MediaPlayerNotificationCenter.post(
-                                MediaPlayerNotification.create(
-                                    playerId,
-                                    MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_READY
-                                ).build()
-                            );
-                            if (extra.autoPlayWhenReady) {
-                                exoPlayer.play();
-                            }
-                            break;
-                    }
-                }
+    private void suspendInactivePlayers(int count, String reason) {
+        ArrayList<PlayerEventListener> candidates = getSuspendCandidates();
+        for (int i = 0; i < Math.min(count, candidates.size()); i++) {
+            candidates.get(i).suspend(reason);
+        }
+    }
+
+    // Only a session whose player wasn't removed can be joined by another create of the same id.
+    @Nullable
+    private MediaSession getCurrentSession(String playerId) {
+        for (MediaSession session : getSessions()) {
+            PlayerEventListener playerEventListener = _playerEventListeners.get(session.getId());
+            if (playerEventListener != null && playerEventListener.isCurrent() && playerId.equals(playerEventListener.getPlayerId())) {
+                return session;
             }
-        );
+        }
+        return null;
+    }
 
-        exoPlayer.prepare();
-        return exoPlayer;
+    private void recyclePlayer(String sessionId, Player player) {
+        PlayerEventListener playerEventListener = _playerEventListeners.remove(sessionId);
+        if (playerEventListener != null) {
+            playerEventListener.detach();
+            // After remove the id may already belong to a new player, whose snapshot and stats must stay.
+            if (playerEventListener.isCurrent()) {
+                MediaPlayerStateProvider.clearSnapshot(playerEventListener.getPlayerId());
+                MediaPlayerStateProvider.clearStatsCollector(playerEventListener.getPlayerId());
+            }
+        }
+        if (player instanceof ExoPlayer exoPlayer) {
+            MediaPlayerPool.recycle(exoPlayer);
+        } else {
+            player.release();
+        }
+    }
+
+    private void releaseSession(MediaSession session) {
+        Player player = session.getPlayer();
+        removeSession(session);
+        session.release();
+        recyclePlayer(session.getId(), player);
+    }
+
+    private class PlayerEventListener implements Player.Listener {
+
+        private final String _playerId;
+        private final ExoPlayer _exoPlayer;
+        private final MediaPlayerState _mediaPlayerState;
+        private final AndroidOptions _android;
+        private final ExtraOptions _extra;
+        private final Handler _handlerCurrentTime = new Handler(Looper.getMainLooper());
+        private final Runnable _timeUpdater = new Runnable() {
+            @Override
+            public void run() {
+                postTimeUpdate();
+                _handlerCurrentTime.postDelayed(this, _android.timeUpdateIntervalMs);
+            }
+        };
+        private final Runnable _statsUpdater = new Runnable() {
+            @Override
+            public void run() {
+                postStats();
+                _handlerCurrentTime.postDelayed(this, _android.statsIntervalMs);
+            }
+        };
+        private final Observer<UI_STATE> _uiStateObserver = state -> {
+            if (_mediaPlayerState.fullscreenState.get() == UI_STATE.ACTIVE || _mediaPlayerState.pipState.get() == UI_STATE.ACTIVE) {
+                // A suspended player brought on screen has to show more than its last frame.
+                resume();
+            }
+            updateLoadPriority();
+            updateVideoTrack();
+        };
+        private long _lastTimeUpdate = C.TIME_UNSET;
+        private long _lastPlayedAt = 0;
+        private long _lastActiveAt = SystemClock.elapsedRealtime();
+        private boolean _isSuspended = false;
+        final MediaPlayerStatsCollector statsCollector;
+
+        PlayerEventListener(
+            String playerId,
+            ExoPlayer exoPlayer,
+            MediaPlayerState mediaPlayerState,
+            AndroidOptions android,
+            ExtraOptions extra
+        ) {
+            _playerId = playerId;
+            _exoPlayer = exoPlayer;
+            _mediaPlayerState = mediaPlayerState;
+            _android = android;
+            _extra = extra;
+            statsCollector = new MediaPlayerStatsCollector(playerId, MediaPlayerPool.getWorkClock(exoPlayer));
+            if (android.statsIntervalMs > 0) {
+                _handlerCurrentTime.postDelayed(_statsUpdater, android.statsIntervalMs);
+            }
+            _mediaPlayerState.fullscreenState.observe(_uiStateObserver);
+            _mediaPlayerState.pipState.observe(_uiStateObserver);
+            _mediaPlayerState.backgroundState.observe(_uiStateObserver);
+            _mediaPlayerState.hiddenState.observe(_uiStateObserver);
+        }
+
+        void detach() {
+            // The player goes back to the pool, commands for this id must not reach its next owner.
+            if (_mediaPlayerState.player.get() == _exoPlayer) {
+                _mediaPlayerState.player.set(null);
+            }
+            _handlerCurrentTime.removeCallbacksAndMessages(null);
+            _mediaPlayerState.fullscreenState.removeObserver(_uiStateObserver);
+            _mediaPlayerState.pipState.removeObserver(_uiStateObserver);
+            _mediaPlayerState.backgroundState.removeObserver(_uiStateObserver);
+            _mediaPlayerState.hiddenState.removeObserver(_uiStateObserver);
+            _exoPlayer.removeListener(this);
+            _exoPlayer.removeAnalyticsListener(statsCollector);
+        }
+
+        // The player on screen or in PiP loads first, then the one playing, and hidden players last.
+        void updateLoadPriority() {
+            int priority;
+            if (_mediaPlayerState.fullscreenState.get() == UI_STATE.ACTIVE || _mediaPlayerState.pipState.get() == UI_STATE.ACTIVE) {
+                priority = MediaPlayerLoadControl.PRIORITY_FOREGROUND;
+            } else if (isHidden()) {
+                priority = MediaPlayerLoadControl.PRIORITY_BACKGROUND;
+            } else if (_exoPlayer.getPlayWhenReady()) {
+                priority = MediaPlayerLoadControl.PRIORITY_PLAYING;
+            } else {
+                priority = MediaPlayerLoadControl.PRIORITY_EMBEDDED;
+            }
+            MediaPlayerPool.setLoadPriority(_exoPlayer, priority, _lastPlayedAt);
+        }
+
+        // Fullscreen and PiP always show the video, whatever the embedded view reports.
+        private boolean isHidden() {
+            if (_mediaPlayerState.fullscreenState.get() == UI_STATE.ACTIVE || _mediaPlayerState.pipState.get() == UI_STATE.ACTIVE) {
+                return false;
+            }
+            return (
+                _mediaPlayerState.backgroundState.get() == UI_STATE.ACTIVE || _mediaPlayerState.hiddenState.get() == UI_STATE.ACTIVE
+            );
+        }
+
+        // Nothing shows the video of a hidden player, only its audio is decoded and downloaded. Enabling video again
+        // makes the player buffer it from the current position.
+        void updateVideoTrack() {
+            boolean isAudioOnly = _android.audioOnlyWhenHidden && isHidden();
+            TrackSelectionParameters parameters = _exoPlayer.getTrackSelectionParameters();
+            if (parameters.disabledTrackTypes.contains(C.TRACK_TYPE_VIDEO) == isAudioOnly) {
+                return;
+            }
+            _exoPlayer.setTrackSelectionParameters(parameters.buildUpon().setTrackTypeDisabled(C.TRACK_TYPE_VIDEO, isAudioOnly).build());
+        }
+
+        String getPlayerId() {
+            return _playerId;
+        }
+
+        // False once remove cleared the state this player was created with.
+        boolean isCurrent() {
+            return MediaPlayerStateProvider.isCurrentState(_playerId, _mediaPlayerState);
+        }
+
+        boolean isSuspended() {
+            return _isSuspended;
+        }
+
+        long getLastActiveAt() {
+            return _lastActiveAt;
+        }
+
+        // Players that are playing or on screen in fullscreen or PiP are never suspended.
+        boolean canSuspend() {
+            return (
+                !_isSuspended &&
+                !_exoPlayer.getPlayWhenReady() &&
+                _exoPlayer.getPlaybackState() != Player.STATE_IDLE &&
+                _mediaPlayerState.fullscreenState.get() != UI_STATE.ACTIVE &&
+                _mediaPlayerState.pipState.get() != UI_STATE.ACTIVE
+            );
+        }
+
+        // Stopping releases the renderers and buffers but keeps the items, position and track selection,
+        // so resuming only has to prepare the player again.
+        void suspend(String reason) {
+            _isSuspended = true;
+            _exoPlayer.stop();
+            postSuspended(reason);
+        }
+
+        void resume() {
+            if (!_isSuspended) {
+                return;
+            }
+            _isSuspended = false;
+            _exoPlayer.prepare();
+            postSuspended(null);
+        }
+
+        private void postSuspended(@Nullable String reason) {
+            MediaPlayerNotification notification = MediaPlayerNotification.create(
+                _playerId,
+                MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_SUSPENDED
+            )
+                .addData("isSuspended", _isSuspended)
+                .addData("currentTime", _exoPlayer.getCurrentPosition() / 1000);
+            if (reason != null) {
+                notification.addData("reason", reason);
+            }
+            MediaPlayerNotificationCenter.post(notification.build());
+        }
+
+        void publishSnapshot() {
+            if (!isCurrent()) {
+                return;
+            }
+            MediaPlayerStateProvider.publishSnapshot(MediaPlayerSnapshot.of(_playerId, _exoPlayer));
+        }
+
+        @Override
+        public void onEvents(@NonNull Player player, @NonNull Player.Events events) {
+            publishSnapshot();
+        }
+
+        @Override
+        public void onPositionDiscontinuity(
+            @NonNull Player.PositionInfo oldPosition,
+            @NonNull Player.PositionInfo newPosition,
+            int reason
+        ) {
+            Player.Listener.super.onPositionDiscontinuity(oldPosition, newPosition, reason);
+            if (reason == Player.DISCONTINUITY_REASON_SEEK) {
+                MediaPlayerNotificationCenter.post(
+                    MediaPlayerNotification.create(_playerId, MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_SEEK)
+                        .addData("previousTime", oldPosition.positionMs / 1000)
+                        .addData("newTime", newPosition.positionMs / 1000)
+                        .build()
+                );
+            }
+        }
+
+        @Override
+        public void onMediaItemTransition(@Nullable androidx.media3.common.MediaItem mediaItem, int reason) {
+            if (mediaItem == null) {
+                return;
+            }
+            MediaPlayerNotificationCenter.post(
+                MediaPlayerNotification.create(_playerId, MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_ITEM_CHANGED)
+                    .addData("index", _exoPlayer.getCurrentMediaItemIndex())
+                    .addData("url", mediaItem.mediaId)
+                    .build()
+            );
+        }
+
+        @Override
+        public void onPlayWhenReadyChanged(boolean playWhenReady, int reason) {
+            _lastActiveAt = SystemClock.elapsedRealtime();
+            if (playWhenReady) {
+                _lastPlayedAt = _lastActiveAt;
+                resume();
+                enforceActivePlayerCap(0);
+            }
+            updateLoadPriority();
+        }
+
+        @Override
+        public void onIsPlayingChanged(boolean isPlaying) {
+            if (isPlaying) {
+                MediaPlayerNotificationCenter.post(
+                    MediaPlayerNotification.create(_playerId, MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_PLAY).build()
+                );
+                _handlerCurrentTime.removeCallbacks(_timeUpdater);
+                _handlerCurrentTime.postDelayed(_timeUpdater, _android.timeUpdateIntervalMs);
+            } else {
+                _handlerCurrentTime.removeCallbacks(_timeUpdater);
+                MediaPlayerNotificationCenter.post(
+                    MediaPlayerNotification.create(_playerId, MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_PAUSE).build()
+                );
+            }
+        }
+
+        private void postTimeUpdate() {
+            if (!MediaPlayerNotificationCenter.hasListeners(MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_TIME_UPDATED)) {
+                return;
+            }
+            if (
+                _android.pauseTimeUpdatesWhenHidden &&
+                (_mediaPlayerState.backgroundState.get() == UI_STATE.ACTIVE || _mediaPlayerState.pipState.get() == UI_STATE.ACTIVE)
+            ) {
+                return;
+            }
+            long currentPosition = _exoPlayer.getCurrentPosition();
+            if (_lastTimeUpdate != C.TIME_UNSET && Math.abs(currentPosition - _lastTimeUpdate) < _android.timeUpdateMinDeltaMs) {
+                return;
+            }
+            _lastTimeUpdate = currentPosition;
+            MediaPlayerNotificationCenter.post(
+                MediaPlayerNotification.create(_playerId, MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_TIME_UPDATED)
+                    .addData("currentTime", currentPosition / 1000)
+                    .build()
+            );
+        }
+
+        private void postStats() {
+            if (!MediaPlayerNotificationCenter.hasListeners(MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_STATS)) {
+                return;
+            }
+            MediaPlayerNotificationCenter.post(
+                MediaPlayerNotification.create(_playerId, MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_STATS)
+                    .addData("stats", statsCollector.getStats().toJSObject())
+                    .build()
+            );
+        }
+
+        @Override
+        public void onPlaybackStateChanged(int playbackState) {
+            Player.Listener.super.onPlaybackStateChanged(playbackState);
+            switch (playbackState) {
+                case Player.STATE_BUFFERING:
+                case Player.STATE_IDLE:
+                    break;
+                case Player.STATE_ENDED:
+                    MediaPlayerNotificationCenter.post(
+                        MediaPlayerNotification.create(_playerId, MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_ENDED).build()
+                    );
+                    break;
+                case Player.STATE_READY:
+                    MediaPlayerNotificationCenter.post(
+                        MediaPlayerNotification.create(_playerId, MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_READY).build()
+                    );
+                    if (_extra.autoPlayWhenReady) {
+                        _exoPlayer.play();
+                    }
+                    break;
+            }
+        }
     }
 
     @Override
@@ -252,6 +538,29 @@ public class MediaPlayerService extends MediaSessionService implements Lifecycle
             });
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        switch (level) {
+            case ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW:
+            case ComponentCallbacks2.TRIM_MEMORY_BACKGROUND:
+                // Idle pooled players are the cheapest to give back.
+                MediaPlayerPool.onMemoryPressure();
+                // Keep the most recently used inactive player ready, the user is most likely to come back to it.
+                suspendInactivePlayers(getSuspendCandidates().size() - 1, SUSPEND_REASON_MEMORY);
+                break;
+            case ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL:
+            case ComponentCallbacks2.TRIM_MEMORY_MODERATE:
+            case ComponentCallbacks2.TRIM_MEMORY_COMPLETE:
+                MediaPlayerPool.onMemoryPressure();
+                suspendInactivePlayers(Integer.MAX_VALUE, SUSPEND_REASON_MEMORY);
+                break;
+            default:
+                // UI_HIDDEN only means the app left the screen and RUNNING_MODERATE isn't pressure yet.
+                break;
+        }
+    }
+
     @Override
     public IBinder onBind(Intent intent) {
         mDispatcher.onServicePreSuperOnBind();
@@ -268,12 +577,7 @@ public class MediaPlayerService extends MediaSessionService implements Lifecycle
     public void onDestroy() {
         mDispatcher.onServicePreSuperOnDestroy();
         super.onDestroy();
-        getSessions()
-            .forEach(session -> {
-                session.getPlayer().release();
-                session.release();
-                removeSession(session);
-            });
+        getSessions().forEach(this::releaseSession);
     }
 
     @NonNull
@@ -0,0 +1,51 @@
+package dev.eduardoroth.mediaplayer;
+
+import androidx.media3.common.Player;
+import dev.eduardoroth.mediaplayer.models.AndroidOptions;
+import dev.eduardoroth.mediaplayer.models.ExtraOptions;
+import dev.eduardoroth.mediaplayer.models.PlacementOptions;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The service runs in the plugin's process, so the options of a new session are handed over in memory and
+// only a token travels in the connection hints instead of serializing the models into the bundle.
+final class MediaPlayerSessionHandoff {
+
+    interface OnSessionReady {
+        void ready(Player player);
+    }
+
+    record SessionRequest(
+        String playerId,
+        String videoUrl,
+        PlacementOptions placement,
+        AndroidOptions android,
+        ExtraOptions extra,
+        OnSessionReady onSessionReady
+    ) {}
+
+    private static final ConcurrentHashMap<String, SessionRequest> _requests = new ConcurrentHashMap<>();
+    private static final AtomicLong _lastToken = new AtomicLong();
+
+    private MediaPlayerSessionHandoff() {}
+
+    // A token per create, so two quick creates of the same player can't pick up each other's options.
+    static String offer(SessionRequest request) {
+        String token = request.playerId() + "#" + _lastToken.incrementAndGet();
+        _requests.put(token, request);
+        return token;
+    }
+
+    static SessionRequest take(String token) {
+        return token != null ? _requests.remove(token) : null;
+    }
+
+    // Drops a request the service never asked for, e.g. when the controller failed to connect.
+    static void discard(String token) {
+        _requests.remove(token);
+    }
+
+    static int size() {
+        return _requests.size();
+    }
+}
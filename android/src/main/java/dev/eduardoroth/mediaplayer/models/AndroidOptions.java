@@ -11,6 +11,12 @@ public class AndroidOptions implements Serializable {
     public boolean automaticallyEnterPiP;
     public boolean fullscreenOnLandscape;
     public boolean stopOnTaskRemoved;
+    public BufferProfile bufferProfile;
+    public int timeUpdateIntervalMs;
+    public long timeUpdateMinDeltaMs;
+    public boolean pauseTimeUpdatesWhenHidden;
+    public int statsIntervalMs;
+    public boolean audioOnlyWhenHidden;
 
     public AndroidOptions(
         boolean enableChromecast,
@@ -19,7 +25,13 @@ public class AndroidOptions implements Serializable {
         boolean openInFullscreen,
         boolean automaticallyEnterPiP,
         boolean fullscreenOnLandscape,
-        boolean stopOnTaskRemoved
+        boolean stopOnTaskRemoved,
+        BufferProfile bufferProfile,
+        int timeUpdateIntervalMs,
+        long timeUpdateMinDeltaMs,
+        boolean pauseTimeUpdatesWhenHidden,
+        int statsIntervalMs,
+        boolean audioOnlyWhenHidden
     ) {
         this.enableChromecast = enableChromecast;
         this.enablePiP = enablePiP;
@@ -28,5 +40,11 @@ public class AndroidOptions implements Serializable {
         this.automaticallyEnterPiP = automaticallyEnterPiP;
         this.fullscreenOnLandscape = fullscreenOnLandscape;
         this.stopOnTaskRemoved = stopOnTaskRemoved;
+        this.bufferProfile = bufferProfile;
+        this.timeUpdateIntervalMs = Math.max(16, timeUpdateIntervalMs);
+        this.timeUpdateMinDeltaMs = Math.max(0, timeUpdateMinDeltaMs);
+        this.pauseTimeUpdatesWhenHidden = pauseTimeUpdatesWhenHidden;
+        this.statsIntervalMs = Math.max(0, statsIntervalMs);
+        this.audioOnlyWhenHidden = audioOnlyWhenHidden;
     }
 }
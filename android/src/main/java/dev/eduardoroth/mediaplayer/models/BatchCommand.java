@@ -0,0 +1,14 @@
+package dev.eduardoroth.mediaplayer.models;
+
+public class BatchCommand {
+
+    public String playerId;
+    public String command;
+    public Double value;
+
+    public BatchCommand(String playerId, String command, Double value) {
+        this.playerId = playerId;
+        this.command = command;
+        this.value = value;
+    }
+}
@@ -0,0 +1,112 @@
+package dev.eduardoroth.mediaplayer.models;
+
+import java.io.Serializable;
+import java.util.Objects;
+import org.json.JSONObject;
+
+public class BufferProfile implements Serializable {
+
+    public static final String DEFAULT = "default";
+    public static final String FAST_START = "fastStart";
+    public static final String LOW_MEMORY = "lowMemory";
+    public static final String LOW_LATENCY_LIVE = "lowLatencyLive";
+    public static final String HIGH_RESILIENCE = "highResilience";
+    public static final String CUSTOM = "custom";
+
+    public String name;
+    public int minBufferMs;
+    public int maxBufferMs;
+    public int bufferForPlaybackMs;
+    public int bufferForPlaybackAfterRebufferMs;
+    public int backBufferMs;
+    public int targetBufferBytes;
+
+    public BufferProfile(
+        String name,
+        int minBufferMs,
+        int maxBufferMs,
+        int bufferForPlaybackMs,
+        int bufferForPlaybackAfterRebufferMs,
+        int backBufferMs,
+        int targetBufferBytes
+    ) {
+        // DefaultLoadControl rejects inconsistent thresholds, so keep them ordered here.
+        this.name = name;
+        this.bufferForPlaybackMs = Math.max(0, bufferForPlaybackMs);
+        this.bufferForPlaybackAfterRebufferMs = Math.max(0, bufferForPlaybackAfterRebufferMs);
+        this.minBufferMs = Math.max(minBufferMs, Math.max(this.bufferForPlaybackMs, this.bufferForPlaybackAfterRebufferMs));
+        this.maxBufferMs = Math.max(maxBufferMs, this.minBufferMs);
+        this.backBufferMs = Math.max(0, backBufferMs);
+        this.targetBufferBytes = targetBufferBytes > 0 ? targetBufferBytes : -1;
+    }
+
+    public static BufferProfile fromName(String name) {
+        if (name == null) {
+            return fromName(DEFAULT);
+        }
+        return switch (name) {
+            case FAST_START -> new BufferProfile(FAST_START, 15000, 30000, 1000, 2000, 0, -1);
+            case LOW_MEMORY -> new BufferProfile(LOW_MEMORY, 5000, 15000, 1500, 3000, 0, 8 * 1024 * 1024);
+            case LOW_LATENCY_LIVE -> new BufferProfile(LOW_LATENCY_LIVE, 2000, 8000, 500, 1000, 0, -1);
+            case HIGH_RESILIENCE -> new BufferProfile(HIGH_RESILIENCE, 60000, 120000, 2500, 5000, 30000, -1);
+            default -> new BufferProfile(DEFAULT, 50000, 50000, 2500, 5000, 0, -1);
+        };
+    }
+
+    public static BufferProfile fromOptions(String name, JSONObject options) {
+        if (!CUSTOM.equals(name)) {
+            return fromName(name);
+        }
+        BufferProfile base = fromName(DEFAULT);
+        if (options == null) {
+            return new BufferProfile(
+                CUSTOM,
+                base.minBufferMs,
+                base.maxBufferMs,
+                base.bufferForPlaybackMs,
+                base.bufferForPlaybackAfterRebufferMs,
+                base.backBufferMs,
+                base.targetBufferBytes
+            );
+        }
+        return new BufferProfile(
+            CUSTOM,
+            options.optInt("minBufferMs", base.minBufferMs),
+            options.optInt("maxBufferMs", base.maxBufferMs),
+            options.optInt("bufferForPlaybackMs", base.bufferForPlaybackMs),
+            options.optInt("bufferForPlaybackAfterRebufferMs", base.bufferForPlaybackAfterRebufferMs),
+            options.optInt("backBufferMs", base.backBufferMs),
+            options.optInt("targetBufferBytes", base.targetBufferBytes)
+        );
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof BufferProfile profile)) {
+            return false;
+        }
+        return (
+            minBufferMs == profile.minBufferMs &&
+            maxBufferMs == profile.maxBufferMs &&
+            bufferForPlaybackMs == profile.bufferForPlaybackMs &&
+            bufferForPlaybackAfterRebufferMs == profile.bufferForPlaybackAfterRebufferMs &&
+            backBufferMs == profile.backBufferMs &&
+            targetBufferBytes == profile.targetBufferBytes
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+            minBufferMs,
+            maxBufferMs,
+            bufferForPlaybackMs,
+            bufferForPlaybackAfterRebufferMs,
+            backBufferMs,
+            targetBufferBytes
+        );
+    }
+}
@@ -0,0 +1,21 @@
+package dev.eduardoroth.mediaplayer.models;
+
+import org.json.JSONObject;
+
+public class CacheOptions {
+
+    public boolean enabled;
+    public long maxBytes;
+
+    public CacheOptions(boolean enabled, long maxBytes) {
+        this.enabled = enabled;
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    public static CacheOptions fromConfig(JSONObject config) {
+        if (config == null) {
+            return new CacheOptions(true, 256L * 1024 * 1024);
+        }
+        return new CacheOptions(config.optBoolean("enabled", true), config.optLong("maxBytes", 256L * 1024 * 1024));
+    }
+}
@@ -0,0 +1,30 @@
+package dev.eduardoroth.mediaplayer.models;
+
+import org.json.JSONObject;
+
+public class DownloadOptions {
+
+    public int maxParallelDownloads;
+    public int maxParallelSegments;
+    public boolean requireUnmeteredNetwork;
+    public long progressIntervalMs;
+
+    public DownloadOptions(int maxParallelDownloads, int maxParallelSegments, boolean requireUnmeteredNetwork, long progressIntervalMs) {
+        this.maxParallelDownloads = Math.max(1, maxParallelDownloads);
+        this.maxParallelSegments = Math.max(1, maxParallelSegments);
+        this.requireUnmeteredNetwork = requireUnmeteredNetwork;
+        this.progressIntervalMs = Math.max(100, progressIntervalMs);
+    }
+
+    public static DownloadOptions fromConfig(JSONObject config) {
+        if (config == null) {
+            return new DownloadOptions(2, 4, false, 1000);
+        }
+        return new DownloadOptions(
+            config.optInt("maxParallelDownloads", 2),
+            config.optInt("maxParallelSegments", 4),
+            config.optBoolean("requireUnmeteredNetwork", false),
+            config.optLong("progressInterval", 1000)
+        );
+    }
+}
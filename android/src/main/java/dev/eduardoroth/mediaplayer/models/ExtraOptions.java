@@ -1,20 +1,20 @@
 package dev.eduardoroth.mediaplayer.models;
 
-import com.getcapacitor.JSObject;
 import java.io.Serializable;
+import java.util.Map;
 
 public class ExtraOptions implements Serializable {
 
     public String title;
     public String subtitle;
-    public String poster;
+    public final String poster;
     public String artist;
     public double rate;
     public SubtitleOptions subtitles;
     public boolean autoPlayWhenReady;
     public boolean loopOnEnd;
     public boolean showControls;
-    public JSObject headers;
+    public Map<String, String> headers;
 
     public ExtraOptions(
         String title,
@@ -26,7 +26,7 @@ public class ExtraOptions implements Serializable {
         boolean autoPlayWhenReady,
         boolean loopOnEnd,
         boolean showControls,
-        JSObject headers
+        Map<String, String> headers
     ) {
         this.title = title;
         this.subtitle = subtitle;
@@ -39,4 +39,9 @@ public class ExtraOptions implements Serializable {
         this.showControls = showControls;
         this.headers = headers;
     }
+
+    // Presets share one instance between players, so a resolved poster goes on a copy.
+    public ExtraOptions withPoster(String poster) {
+        return new ExtraOptions(title, subtitle, poster, artist, rate, subtitles, autoPlayWhenReady, loopOnEnd, showControls, headers);
+    }
 }
@@ -0,0 +1,30 @@
+package dev.eduardoroth.mediaplayer.models;
+
+import org.json.JSONObject;
+
+public class HttpOptions {
+
+    public long connectTimeoutMs;
+    public long readTimeoutMs;
+    public int maxIdleConnections;
+    public long keepAliveMs;
+
+    public HttpOptions(long connectTimeoutMs, long readTimeoutMs, int maxIdleConnections, long keepAliveMs) {
+        this.connectTimeoutMs = Math.max(0, connectTimeoutMs);
+        this.readTimeoutMs = Math.max(0, readTimeoutMs);
+        this.maxIdleConnections = Math.max(0, maxIdleConnections);
+        this.keepAliveMs = Math.max(0, keepAliveMs);
+    }
+
+    public static HttpOptions fromConfig(JSONObject config) {
+        if (config == null) {
+            return new HttpOptions(8000, 8000, 5, 300000);
+        }
+        return new HttpOptions(
+            config.optLong("connectTimeout", 8000),
+            config.optLong("readTimeout", 8000),
+            config.optInt("maxIdleConnections", 5),
+            config.optLong("keepAlive", 300000)
+        );
+    }
+}
@@ -5,7 +5,7 @@ import android.net.Uri;
 import androidx.media3.common.C;
 import androidx.media3.common.MediaItem.SubtitleConfiguration;
 import androidx.media3.common.MediaMetadata;
-import androidx.media3.common.MimeTypes;
+import dev.eduardoroth.mediaplayer.core.SubtitleMimeTypes;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
@@ -28,6 +28,7 @@ public class MediaItem {
         }
 
         androidx.media3.common.MediaItem.Builder mediaItemBuilder = new androidx.media3.common.MediaItem.Builder()
+            .setMediaId(url.toString())
             .setUri(url)
             .setMediaMetadata(movieMetadataBuilder.build());
 
@@ -50,7 +51,7 @@ public class MediaItem {
     }
 
     private SubtitleConfiguration getSubtitlesFactory(Uri url, String language) {
-        String mimeType = getMimeType(url);
+        String mimeType = SubtitleMimeTypes.fromFileName(url.getLastPathSegment());
         String languageLabel = Locale.forLanguageTag(language).getDisplayLanguage();
         return new SubtitleConfiguration.Builder(url)
             .setMimeType(mimeType)
@@ -62,19 +63,4 @@ public class MediaItem {
             .setLanguage(language)
             .build();
     }
-
-    private String getMimeType(Uri subtitlesUrl) {
-        String lastSegment = subtitlesUrl.getLastPathSegment();
-        if (lastSegment != null) {
-            String extension = lastSegment.substring(lastSegment.lastIndexOf(".") + 1);
-            return switch (extension) {
-                case "vtt" -> MimeTypes.TEXT_VTT;
-                case "srt" -> MimeTypes.APPLICATION_SUBRIP;
-                case "ssa", "ass" -> MimeTypes.TEXT_SSA;
-                case "ttml", "dfxp", "xml" -> MimeTypes.APPLICATION_TTML;
-                default -> "";
-            };
-        }
-        return "";
-    }
 }
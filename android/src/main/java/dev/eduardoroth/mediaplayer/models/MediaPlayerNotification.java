@@ -11,7 +11,7 @@ public class MediaPlayerNotification {
     }
 
     public static MediaPlayerNotification create(String playerId, NOTIFICATION_TYPE notificationType) {
-        MediaPlayerNotification newMediaPlayerNotification = new MediaPlayerNotification(notificationType);
+        MediaPlayerNotification newMediaPlayerNotification = new MediaPlayerNotification(playerId, notificationType);
         if (playerId != null) {
             newMediaPlayerNotification.addData("playerId", playerId);
         }
@@ -20,8 +20,10 @@ public class MediaPlayerNotification {
 
     private final NOTIFICATION_TYPE _notificationType;
     private final JSObject _notificationData;
+    private String _coalesceId;
 
-    private MediaPlayerNotification(NOTIFICATION_TYPE notificationType) {
+    private MediaPlayerNotification(String playerId, NOTIFICATION_TYPE notificationType) {
+        _coalesceId = playerId;
         _notificationType = notificationType;
         _notificationData = new JSObject();
     }
@@ -31,7 +33,14 @@ public class MediaPlayerNotification {
         return this;
     }
 
+    // Coalescable notifications that are not about a player need another identity to be coalesced by.
+    public MediaPlayerNotification coalesceBy(String coalesceId) {
+        _coalesceId = coalesceId;
+        return this;
+    }
+
     public CapacitorNotification build() {
-        return new CapacitorNotification(_notificationType.toString(), _notificationData);
+        String coalesceKey = _notificationType.isCoalescable() ? _notificationType + ":" + _coalesceId : null;
+        return new CapacitorNotification(_notificationType.toString(), _notificationData, coalesceKey);
     }
 }
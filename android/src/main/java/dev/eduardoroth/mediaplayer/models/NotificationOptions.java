@@ -0,0 +1,32 @@
+package dev.eduardoroth.mediaplayer.models;
+
+import org.json.JSONObject;
+
+public class NotificationOptions {
+
+    public enum OVERFLOW_POLICY {
+        DROP_OLDEST,
+        COALESCE
+    }
+
+    public int capacity;
+    public int batchSize;
+    public OVERFLOW_POLICY overflowPolicy;
+
+    public NotificationOptions(int capacity, int batchSize, OVERFLOW_POLICY overflowPolicy) {
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public static NotificationOptions fromConfig(JSONObject config) {
+        if (config == null) {
+            return new NotificationOptions(256, 32, OVERFLOW_POLICY.COALESCE);
+        }
+        return new NotificationOptions(
+            config.optInt("capacity", 256),
+            config.optInt("batchSize", 32),
+            "dropOldest".equals(config.optString("overflowPolicy", "coalesce")) ? OVERFLOW_POLICY.DROP_OLDEST : OVERFLOW_POLICY.COALESCE
+        );
+    }
+}
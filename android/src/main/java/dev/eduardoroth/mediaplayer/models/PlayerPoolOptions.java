@@ -0,0 +1,43 @@
+package dev.eduardoroth.mediaplayer.models;
+
+import org.json.JSONObject;
+
+public class PlayerPoolOptions {
+
+    public int minIdle;
+    public int maxIdle;
+    public long idleTimeoutMs;
+    public int playbackThreads;
+    public long memoryBudgetBytes;
+    public int maxActivePlayers;
+
+    public PlayerPoolOptions(
+        int minIdle,
+        int maxIdle,
+        long idleTimeoutMs,
+        int playbackThreads,
+        long memoryBudgetBytes,
+        int maxActivePlayers
+    ) {
+        this.maxIdle = Math.max(0, maxIdle);
+        this.minIdle = Math.max(0, Math.min(minIdle, this.maxIdle));
+        this.idleTimeoutMs = Math.max(0, idleTimeoutMs);
+        this.playbackThreads = Math.max(0, playbackThreads);
+        this.memoryBudgetBytes = Math.max(0, memoryBudgetBytes);
+        this.maxActivePlayers = Math.max(0, maxActivePlayers);
+    }
+
+    public static PlayerPoolOptions fromConfig(JSONObject config) {
+        if (config == null) {
+            return new PlayerPoolOptions(1, 2, 60000, 0, 0, 0);
+        }
+        return new PlayerPoolOptions(
+            config.optInt("minIdle", 1),
+            config.optInt("maxIdle", 2),
+            config.optLong("idleTimeout", 60000),
+            config.optInt("playbackThreads", 0),
+            config.optLong("memoryBudget", 0),
+            config.optInt("maxActivePlayers", 0)
+        );
+    }
+}
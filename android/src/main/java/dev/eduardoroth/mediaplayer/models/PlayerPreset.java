@@ -0,0 +1,21 @@
+package dev.eduardoroth.mediaplayer.models;
+
+import com.getcapacitor.JSObject;
+
+// Options compiled once by registerPreset. The raw objects are kept so create can merge overrides into them,
+// and the placement is tied to the display metrics it was sized for.
+public record PlayerPreset(
+    JSObject placementOptions,
+    JSObject androidOptions,
+    JSObject extraOptions,
+    PlacementOptions placement,
+    AndroidOptions android,
+    ExtraOptions extra,
+    int widthPixels,
+    int heightPixels,
+    float density
+) {
+    public boolean isSizedFor(int widthPixels, int heightPixels, float density) {
+        return this.widthPixels == widthPixels && this.heightPixels == heightPixels && this.density == density;
+    }
+}
@@ -0,0 +1,27 @@
+package dev.eduardoroth.mediaplayer.models;
+
+import org.json.JSONObject;
+
+public class PreloadOptions {
+
+    public int maxConcurrent;
+    public long durationMs;
+    public long maxBytes;
+
+    public PreloadOptions(int maxConcurrent, long durationMs, long maxBytes) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.durationMs = Math.max(0, durationMs);
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    public static PreloadOptions fromConfig(JSONObject config) {
+        if (config == null) {
+            return new PreloadOptions(2, 10000, 8L * 1024 * 1024);
+        }
+        return new PreloadOptions(
+            config.optInt("maxConcurrent", 2),
+            config.optLong("duration", 10000),
+            config.optLong("maxBytes", 8L * 1024 * 1024)
+        );
+    }
+}
@@ -0,0 +1,12 @@
+package dev.eduardoroth.mediaplayer.models;
+
+public class QueueItem {
+
+    public String url;
+    public ExtraOptions extra;
+
+    public QueueItem(String url, ExtraOptions extra) {
+        this.url = url;
+        this.extra = extra;
+    }
+}
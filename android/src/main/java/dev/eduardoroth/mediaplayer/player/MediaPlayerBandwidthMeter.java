@@ -0,0 +1,80 @@
+package dev.eduardoroth.mediaplayer.player;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import androidx.annotation.OptIn;
+import androidx.media3.common.C;
+import androidx.media3.common.util.NetworkTypeObserver;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.upstream.DefaultBandwidthMeter;
+
+// One bandwidth meter for every player, seeded with the estimate saved per network type on the previous run.
+@OptIn(markerClass = UnstableApi.class)
+public class MediaPlayerBandwidthMeter {
+
+    private static final String PREFERENCES_NAME = "MediaPlayerBandwidthMeter";
+    private static final long MAX_ESTIMATE_AGE_MS = 24 * 60 * 60 * 1000;
+    private static final int[] NETWORK_TYPES = {
+        C.NETWORK_TYPE_WIFI,
+        C.NETWORK_TYPE_ETHERNET,
+        C.NETWORK_TYPE_2G,
+        C.NETWORK_TYPE_3G,
+        C.NETWORK_TYPE_4G,
+        C.NETWORK_TYPE_5G_NSA,
+        C.NETWORK_TYPE_5G_SA,
+    };
+
+    private static DefaultBandwidthMeter _bandwidthMeter;
+    private static SharedPreferences _preferences;
+    private static NetworkTypeObserver _networkTypeObserver;
+
+    public static void init(Context context) {
+        if (_bandwidthMeter != null) {
+            return;
+        }
+        _preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        _networkTypeObserver = NetworkTypeObserver.getInstance(context);
+
+        DefaultBandwidthMeter.Builder builder = new DefaultBandwidthMeter.Builder(context);
+        long now = System.currentTimeMillis();
+        for (int networkType : NETWORK_TYPES) {
+            long estimate = _preferences.getLong(estimateKey(networkType), 0);
+            long savedAt = _preferences.getLong(savedAtKey(networkType), 0);
+            if (estimate > 0 && now - savedAt < MAX_ESTIMATE_AGE_MS) {
+                builder.setInitialBitrateEstimate(networkType, estimate);
+            }
+        }
+        _bandwidthMeter = builder.build();
+    }
+
+    public static DefaultBandwidthMeter get() {
+        if (_bandwidthMeter == null) {
+            throw new Error("You need to initialize the Bandwidth Meter before using it");
+        }
+        return _bandwidthMeter;
+    }
+
+    public static void persist() {
+        if (_bandwidthMeter == null) {
+            return;
+        }
+        int networkType = _networkTypeObserver.getNetworkType();
+        long estimate = _bandwidthMeter.getBitrateEstimate();
+        if (networkType == C.NETWORK_TYPE_UNKNOWN || networkType == C.NETWORK_TYPE_OFFLINE || estimate <= 0) {
+            return;
+        }
+        _preferences
+            .edit()
+            .putLong(estimateKey(networkType), estimate)
+            .putLong(savedAtKey(networkType), System.currentTimeMillis())
+            .apply();
+    }
+
+    private static String estimateKey(int networkType) {
+        return "estimate_" + networkType;
+    }
+
+    private static String savedAtKey(int networkType) {
+        return "savedAt_" + networkType;
+    }
+}
@@ -0,0 +1,223 @@
+package dev.eduardoroth.mediaplayer.player;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import androidx.annotation.NonNull;
+import androidx.annotation.OptIn;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.database.DatabaseProvider;
+import androidx.media3.database.StandaloneDatabaseProvider;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.DefaultDataSource;
+import androidx.media3.datasource.TransferListener;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.SimpleCache;
+import dev.eduardoroth.mediaplayer.models.CacheOptions;
+import java.io.File;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Process-wide segment cache shared by every player. Local files and assets never go through it.
+@OptIn(markerClass = UnstableApi.class)
+public class MediaPlayerCache {
+
+    public record CacheStats(
+        boolean enabled,
+        long size,
+        long maxSize,
+        long cachedBytesRead,
+        long networkBytesRead,
+        double hitRatio,
+        Set<String> pinned
+    ) {}
+
+    private static final String PREFERENCES_NAME = "MediaPlayerCache";
+    private static final String PREFERENCES_PINNED = "pinned";
+
+    private static MediaPlayerCache _cache;
+
+    private final Context _context;
+    private final SharedPreferences _preferences;
+    private final DatabaseProvider _databaseProvider;
+    private final SimpleCache _simpleCache;
+    private final MediaPlayerCacheEvictor _evictor;
+    private final DataSource.Factory _dataSourceFactory;
+    private final DataSource.Factory _manifestDataSourceFactory;
+    private final AtomicLong _cachedBytesRead = new AtomicLong();
+    private final AtomicLong _networkBytesRead = new AtomicLong();
+
+    private final TransferListener _networkTransferListener = new TransferListener() {
+        @Override
+        public void onTransferInitializing(@NonNull DataSource source, @NonNull DataSpec dataSpec, boolean isNetwork) {}
+
+        @Override
+        public void onTransferStart(@NonNull DataSource source, @NonNull DataSpec dataSpec, boolean isNetwork) {}
+
+        @Override
+        public void onBytesTransferred(@NonNull DataSource source, @NonNull DataSpec dataSpec, boolean isNetwork, int bytesTransferred) {
+            _networkBytesRead.addAndGet(bytesTransferred);
+        }
+
+        @Override
+        public void onTransferEnd(@NonNull DataSource source, @NonNull DataSpec dataSpec, boolean isNetwork) {}
+    };
+
+    private MediaPlayerCache(Context context, CacheOptions options) {
+        _context = context;
+        _preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        _databaseProvider = new StandaloneDatabaseProvider(context);
+        if (options.enabled && options.maxBytes > 0) {
+            _evictor = new MediaPlayerCacheEvictor(options.maxBytes);
+            for (String pinned : _preferences.getStringSet(PREFERENCES_PINNED, new HashSet<>())) {
+                _evictor.pin(pinned);
+            }
+            _simpleCache = new SimpleCache(
+                new File(context.getCacheDir(), "media-player"),
+                _evictor,
+                _databaseProvider
+            );
+        } else {
+            _evictor = null;
+            _simpleCache = null;
+        }
+        _dataSourceFactory = buildDataSourceFactory(context, null);
+        _manifestDataSourceFactory = new DefaultDataSource.Factory(context, buildHttpDataSourceFactory(null));
+    }
+
+    public static void init(Context context, CacheOptions options) {
+        // A SimpleCache directory can only be opened once per process, so the first configuration wins.
+        if (_cache == null) {
+            _cache = new MediaPlayerCache(context.getApplicationContext(), options);
+        }
+    }
+
+    public static DataSource.Factory getDataSourceFactory() {
+        return getCache()._dataSourceFactory;
+    }
+
+    public static DataSource.Factory getDataSourceFactory(Map<String, String> headers) {
+        MediaPlayerCache cache = getCache();
+        if (headers == null || headers.isEmpty()) {
+            return cache._dataSourceFactory;
+        }
+        return cache.buildDataSourceFactory(cache._context, headers);
+    }
+
+    // HLS playlists, DASH and SmoothStreaming manifests are keyed by URL like everything else, so a cached copy would
+    // be served forever and freeze live streams. Media sources load them through this factory, which never caches.
+    public static DataSource.Factory getManifestDataSourceFactory() {
+        return getCache()._manifestDataSourceFactory;
+    }
+
+    public static DataSource.Factory getManifestDataSourceFactory(Map<String, String> headers) {
+        MediaPlayerCache cache = getCache();
+        if (headers == null || headers.isEmpty()) {
+            return cache._manifestDataSourceFactory;
+        }
+        return new DefaultDataSource.Factory(cache._context, cache.buildHttpDataSourceFactory(headers));
+    }
+
+    static DatabaseProvider getDatabaseProvider() {
+        return getCache()._databaseProvider;
+    }
+
+    public static CacheDataSource createCacheDataSource(Map<String, String> headers) {
+        MediaPlayerCache cache = getCache();
+        if (cache._simpleCache == null) {
+            throw new Error("The media cache is disabled");
+        }
+        return cache.buildCacheDataSourceFactory(headers).createDataSource();
+    }
+
+    public static void remove(String key) {
+        MediaPlayerCache cache = getCache();
+        if (cache._simpleCache != null) {
+            cache._simpleCache.removeResource(key);
+        }
+    }
+
+    public static CacheStats getStats() {
+        MediaPlayerCache cache = getCache();
+        long cachedBytesRead = cache._cachedBytesRead.get();
+        long networkBytesRead = cache._networkBytesRead.get();
+        long totalBytesRead = cachedBytesRead + networkBytesRead;
+        return new CacheStats(
+            cache._simpleCache != null,
+            cache._simpleCache != null ? cache._simpleCache.getCacheSpace() : 0,
+            cache._evictor != null ? cache._evictor.getMaxBytes() : 0,
+            cachedBytesRead,
+            networkBytesRead,
+            totalBytesRead > 0 ? (double) cachedBytesRead / totalBytesRead : 0,
+            cache._evictor != null ? cache._evictor.getPinned() : new HashSet<>()
+        );
+    }
+
+    public static void clear() {
+        MediaPlayerCache cache = getCache();
+        if (cache._simpleCache == null) {
+            return;
+        }
+        for (String key : cache._simpleCache.getKeys()) {
+            if (!cache._evictor.isPinned(key)) {
+                cache._simpleCache.removeResource(key);
+            }
+        }
+    }
+
+    public static void pin(String keyPrefix) {
+        MediaPlayerCache cache = getCache();
+        if (cache._evictor == null) {
+            throw new Error("The media cache is disabled");
+        }
+        cache._evictor.pin(keyPrefix);
+        cache._preferences.edit().putStringSet(PREFERENCES_PINNED, cache._evictor.getPinned()).apply();
+    }
+
+    public static void unpin(String keyPrefix) {
+        MediaPlayerCache cache = getCache();
+        if (cache._evictor == null) {
+            throw new Error("The media cache is disabled");
+        }
+        cache._evictor.unpin(keyPrefix);
+        cache._preferences.edit().putStringSet(PREFERENCES_PINNED, cache._evictor.getPinned()).apply();
+    }
+
+    private DataSource.Factory buildDataSourceFactory(Context context, Map<String, String> headers) {
+        if (_simpleCache == null) {
+            return new DefaultDataSource.Factory(context, buildHttpDataSourceFactory(headers));
+        }
+        return new DefaultDataSource.Factory(context, buildCacheDataSourceFactory(headers));
+    }
+
+    private DataSource.Factory buildHttpDataSourceFactory(Map<String, String> headers) {
+        return MediaPlayerHttpDataSource.createFactory(headers).setTransferListener(_networkTransferListener);
+    }
+
+    private CacheDataSource.Factory buildCacheDataSourceFactory(Map<String, String> headers) {
+        return new CacheDataSource.Factory()
+            .setCache(_simpleCache)
+            .setUpstreamDataSourceFactory(buildHttpDataSourceFactory(headers))
+            .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR)
+            .setEventListener(
+                new CacheDataSource.EventListener() {
+                    @Override
+                    public void onCachedBytesRead(long cacheSizeBytes, long cachedBytesRead) {
+                        _cachedBytesRead.addAndGet(cachedBytesRead);
+                    }
+
+                    @Override
+                    public void onCacheIgnored(int reason) {}
+                }
+            );
+    }
+
+    private static MediaPlayerCache getCache() {
+        if (_cache == null) {
+            throw new Error("You need to initialize the Media Cache before using it");
+        }
+        return _cache;
+    }
+}
@@ -0,0 +1,114 @@
+package dev.eduardoroth.mediaplayer.player;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.OptIn;
+import androidx.media3.common.C;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.cache.Cache;
+import androidx.media3.datasource.cache.CacheEvictor;
+import androidx.media3.datasource.cache.CacheSpan;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Same ordering as LeastRecentlyUsedCacheEvictor, but spans whose key starts with a pinned prefix are never evicted.
+@OptIn(markerClass = UnstableApi.class)
+public class MediaPlayerCacheEvictor implements CacheEvictor {
+
+    private final long _maxBytes;
+    private final TreeSet<CacheSpan> _leastRecentlyUsed = new TreeSet<>(MediaPlayerCacheEvictor::compare);
+    private final Set<String> _pinnedPrefixes = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private long _currentSize = 0;
+
+    public MediaPlayerCacheEvictor(long maxBytes) {
+        _maxBytes = maxBytes;
+    }
+
+    public void pin(String keyPrefix) {
+        _pinnedPrefixes.add(keyPrefix);
+    }
+
+    public void unpin(String keyPrefix) {
+        _pinnedPrefixes.remove(keyPrefix);
+    }
+
+    public Set<String> getPinned() {
+        return new HashSet<>(_pinnedPrefixes);
+    }
+
+    public boolean isPinned(String key) {
+        for (String prefix : _pinnedPrefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getMaxBytes() {
+        return _maxBytes;
+    }
+
+    @Override
+    public boolean requiresCacheSpanTouches() {
+        return true;
+    }
+
+    @Override
+    public void onCacheInitialized() {}
+
+    @Override
+    public void onStartFile(@NonNull Cache cache, @NonNull String key, long position, long length) {
+        if (length != C.LENGTH_UNSET) {
+            evictCache(cache, length);
+        }
+    }
+
+    @Override
+    public void onSpanAdded(@NonNull Cache cache, @NonNull CacheSpan span) {
+        _leastRecentlyUsed.add(span);
+        _currentSize += span.length;
+        evictCache(cache, 0);
+    }
+
+    @Override
+    public void onSpanRemoved(@NonNull Cache cache, @NonNull CacheSpan span) {
+        _leastRecentlyUsed.remove(span);
+        _currentSize -= span.length;
+    }
+
+    @Override
+    public void onSpanTouched(@NonNull Cache cache, @NonNull CacheSpan oldSpan, @NonNull CacheSpan newSpan) {
+        onSpanRemoved(cache, oldSpan);
+        onSpanAdded(cache, newSpan);
+    }
+
+    private void evictCache(Cache cache, long requiredSpace) {
+        List<CacheSpan> evictable = new ArrayList<>();
+        long size = _currentSize;
+        for (CacheSpan span : _leastRecentlyUsed) {
+            if (size + requiredSpace <= _maxBytes) {
+                break;
+            }
+            if (!isPinned(span.key)) {
+                evictable.add(span);
+                size -= span.length;
+            }
+        }
+        for (CacheSpan span : evictable) {
+            cache.removeSpan(span);
+        }
+    }
+
+    private static int compare(CacheSpan lhs, CacheSpan rhs) {
+        long lastTouchTimestampDelta = lhs.lastTouchTimestamp - rhs.lastTouchTimestamp;
+        if (lastTouchTimestampDelta == 0) {
+            return lhs.compareTo(rhs);
+        }
+        return lhs.lastTouchTimestamp < rhs.lastTouchTimestamp ? -1 : 1;
+    }
+}
@@ -0,0 +1,36 @@
+package dev.eduardoroth.mediaplayer.player;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.OptIn;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.DataSource;
+import java.util.Map;
+
+// One per pooled player, so every item queued on a player is loaded with the headers of its current owner
+// and from its downloaded copy when there is one.
+@OptIn(markerClass = UnstableApi.class)
+public class MediaPlayerDataSourceFactory implements DataSource.Factory {
+
+    private volatile DataSource.Factory _delegate = MediaPlayerDownloadManager.wrapDataSourceFactory(
+        MediaPlayerCache.getDataSourceFactory()
+    );
+    private volatile DataSource.Factory _manifestDelegate = MediaPlayerDownloadManager.wrapDataSourceFactory(
+        MediaPlayerCache.getManifestDataSourceFactory()
+    );
+
+    public void setHeaders(Map<String, String> headers) {
+        _delegate = MediaPlayerDownloadManager.wrapDataSourceFactory(MediaPlayerCache.getDataSourceFactory(headers));
+        _manifestDelegate = MediaPlayerDownloadManager.wrapDataSourceFactory(MediaPlayerCache.getManifestDataSourceFactory(headers));
+    }
+
+    // Same headers and downloaded copies, but never the media cache.
+    public DataSource.Factory getManifestFactory() {
+        return () -> _manifestDelegate.createDataSource();
+    }
+
+    @NonNull
+    @Override
+    public DataSource createDataSource() {
+        return _delegate.createDataSource();
+    }
+}
@@ -0,0 +1,327 @@
+package dev.eduardoroth.mediaplayer.player;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.media3.common.MediaItem;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.common.util.Util;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.NoOpCacheEvictor;
+import androidx.media3.datasource.cache.SimpleCache;
+import androidx.media3.exoplayer.DefaultRenderersFactory;
+import androidx.media3.exoplayer.offline.Download;
+import androidx.media3.exoplayer.offline.DefaultDownloadIndex;
+import androidx.media3.exoplayer.offline.DefaultDownloaderFactory;
+import androidx.media3.exoplayer.offline.DownloadCursor;
+import androidx.media3.exoplayer.offline.DownloadHelper;
+import androidx.media3.exoplayer.offline.DownloadManager;
+import androidx.media3.exoplayer.offline.DownloadRequest;
+import androidx.media3.exoplayer.offline.Downloader;
+import androidx.media3.exoplayer.scheduler.Requirements;
+import androidx.media3.exoplayer.trackselection.DefaultTrackSelector;
+import dev.eduardoroth.mediaplayer.MediaPlayerNotificationCenter;
+import dev.eduardoroth.mediaplayer.models.DownloadOptions;
+import dev.eduardoroth.mediaplayer.models.MediaPlayerNotification;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+// Offline copies live in their own cache without an evictor, so streaming never pushes a download out.
+@OptIn(markerClass = UnstableApi.class)
+public class MediaPlayerDownloadManager {
+
+    public interface OnDownloadQueued {
+        void queued(Exception error);
+    }
+
+    // Stop reason used by pause, any non zero value keeps the download in the queue without transferring.
+    private static final int STOP_REASON_PAUSED = 1;
+
+    private static MediaPlayerDownloadManager _manager;
+
+    private final Context _context;
+    private final DownloadOptions _options;
+    private final SimpleCache _downloadCache;
+    private final Executor _segmentExecutor;
+    private final DownloadManager _downloadManager;
+    private final ConcurrentHashMap<String, Download> _completedDownloads = new ConcurrentHashMap<>();
+    private final Handler _handler = new Handler(Looper.getMainLooper());
+    private final Runnable _progressUpdater = new Runnable() {
+        @Override
+        public void run() {
+            boolean isDownloading = false;
+            for (Download download : _downloadManager.getCurrentDownloads()) {
+                if (download.state == Download.STATE_DOWNLOADING) {
+                    postDownload(download, getStateName(download.state));
+                    isDownloading = true;
+                }
+            }
+            if (isDownloading) {
+                _handler.postDelayed(this, _options.progressIntervalMs);
+            }
+        }
+    };
+
+    private MediaPlayerDownloadManager(Context context, DownloadOptions options) {
+        _context = context;
+        _options = options;
+        _downloadCache = new SimpleCache(
+            new File(context.getFilesDir(), "media-player-downloads"),
+            new NoOpCacheEvictor(),
+            MediaPlayerCache.getDatabaseProvider()
+        );
+        // Segment downloads of a single stream run in parallel on this executor.
+        _segmentExecutor = Executors.newFixedThreadPool(options.maxParallelSegments);
+        _downloadManager = new DownloadManager(
+            context,
+            new DefaultDownloadIndex(MediaPlayerCache.getDatabaseProvider()),
+            this::createDownloader
+        );
+        _downloadManager.setMaxParallelDownloads(options.maxParallelDownloads);
+        _downloadManager.setRequirements(
+            new Requirements(options.requireUnmeteredNetwork ? Requirements.NETWORK_UNMETERED : Requirements.NETWORK)
+        );
+        // The manager starts with every download paused, pause and resume go through stop reasons instead.
+        _downloadManager.resumeDownloads();
+        _downloadManager.addListener(
+            new DownloadManager.Listener() {
+                @Override
+                public void onInitialized(@NonNull DownloadManager downloadManager) {
+                    try (DownloadCursor cursor = downloadManager.getDownloadIndex().getDownloads(Download.STATE_COMPLETED)) {
+                        while (cursor.moveToNext()) {
+                            Download download = cursor.getDownload();
+                            _completedDownloads.put(download.request.id, download);
+                        }
+                    } catch (IOException ignored) {}
+                }
+
+                @Override
+                public void onDownloadChanged(
+                    @NonNull DownloadManager downloadManager,
+                    @NonNull Download download,
+                    @Nullable Exception finalException
+                ) {
+                    if (download.state == Download.STATE_COMPLETED) {
+                        _completedDownloads.put(download.request.id, download);
+                    } else {
+                        _completedDownloads.remove(download.request.id);
+                    }
+                    postDownload(download, getStateName(download.state));
+                    if (download.state == Download.STATE_DOWNLOADING) {
+                        _handler.removeCallbacks(_progressUpdater);
+                        _handler.postDelayed(_progressUpdater, _options.progressIntervalMs);
+                    }
+                }
+
+                @Override
+                public void onDownloadRemoved(@NonNull DownloadManager downloadManager, @NonNull Download download) {
+                    _completedDownloads.remove(download.request.id);
+                    postDownload(download, "removed");
+                }
+            }
+        );
+    }
+
+    public static void init(Context context, DownloadOptions options) {
+        if (_manager == null) {
+            _manager = new MediaPlayerDownloadManager(context.getApplicationContext(), options);
+        }
+    }
+
+    // Every method that changes downloads must be called from the main thread, the looper the manager was created on.
+    public static void start(String url, String title, Map<String, String> headers, Integer maxVideoBitrate, OnDownloadQueued onQueued) {
+        MediaPlayerDownloadManager manager = getManager();
+        MediaItem mediaItem = new MediaItem.Builder().setMediaId(url).setUri(Uri.parse(url)).build();
+        DownloadHelper downloadHelper = DownloadHelper.forMediaItem(
+            manager._context,
+            mediaItem,
+            new DefaultRenderersFactory(manager._context),
+            MediaPlayerCache.getManifestDataSourceFactory(headers)
+        );
+        downloadHelper.prepare(
+            new DownloadHelper.Callback() {
+                @Override
+                public void onPrepared(@NonNull DownloadHelper helper) {
+                    try {
+                        if (maxVideoBitrate != null) {
+                            DefaultTrackSelector.Parameters parameters = DownloadHelper.getDefaultTrackSelectorParameters(manager._context)
+                                .buildUpon()
+                                .setMaxVideoBitrate(maxVideoBitrate)
+                                .build();
+                            for (int periodIndex = 0; periodIndex < helper.getPeriodCount(); periodIndex++) {
+                                helper.clearTrackSelections(periodIndex);
+                                helper.addTrackSelection(periodIndex, parameters);
+                            }
+                        }
+                        DownloadRequest request = helper.getDownloadRequest(url, createRequestData(title != null ? title : url, headers));
+                        manager._downloadManager.addDownload(request);
+                        onQueued.queued(null);
+                    } catch (Exception err) {
+                        onQueued.queued(err);
+                    } finally {
+                        helper.release();
+                    }
+                }
+
+                @Override
+                public void onPrepareError(@NonNull DownloadHelper helper, @NonNull IOException err) {
+                    helper.release();
+                    onQueued.queued(err);
+                }
+            }
+        );
+    }
+
+    public static void pause(String url) {
+        getManager()._downloadManager.setStopReason(url, STOP_REASON_PAUSED);
+    }
+
+    public static void resume(String url) {
+        getManager()._downloadManager.setStopReason(url, Download.STOP_REASON_NONE);
+    }
+
+    public static void remove(String url) {
+        getManager()._downloadManager.removeDownload(url);
+    }
+
+    public static List<Download> getDownloads() throws IOException {
+        List<Download> downloads = new ArrayList<>();
+        try (DownloadCursor cursor = getManager()._downloadManager.getDownloadIndex().getDownloads()) {
+            while (cursor.moveToNext()) {
+                downloads.add(cursor.getDownload());
+            }
+        }
+        return downloads;
+    }
+
+    // Plays the stream keys that were downloaded, so the player doesn't pick a variant that only exists online.
+    public static MediaItem getPlayableMediaItem(MediaItem mediaItem) {
+        if (_manager == null) {
+            return mediaItem;
+        }
+        Download download = _manager._completedDownloads.get(mediaItem.mediaId);
+        if (download == null && !_manager._downloadManager.isInitialized()) {
+            // The completed downloads are only known once the manager has initialized, a cold start reads the index itself.
+            try {
+                download = _manager._downloadManager.getDownloadIndex().getDownload(mediaItem.mediaId);
+            } catch (IOException ignored) {}
+        }
+        if (download == null || download.state != Download.STATE_COMPLETED) {
+            return mediaItem;
+        }
+        return mediaItem
+            .buildUpon()
+            .setMimeType(download.request.mimeType)
+            .setStreamKeys(download.request.streamKeys)
+            .setCustomCacheKey(download.request.customCacheKey)
+            .build();
+    }
+
+    // Reads completed segments from the download cache and anything else from the given factory.
+    static DataSource.Factory wrapDataSourceFactory(DataSource.Factory upstreamFactory) {
+        if (_manager == null) {
+            return upstreamFactory;
+        }
+        return new CacheDataSource.Factory()
+            .setCache(_manager._downloadCache)
+            .setUpstreamDataSourceFactory(upstreamFactory)
+            .setCacheWriteDataSinkFactory(null);
+    }
+
+    public static String getTitle(Download download) {
+        JSONObject data = readRequestData(download.request);
+        // Downloads queued before the headers were stored only hold the title.
+        return data != null ? data.optString("title", download.request.id) : Util.fromUtf8Bytes(download.request.data);
+    }
+
+    // Segments are requested with the headers the download was started with, authenticated streams need them as
+    // much as their manifest does.
+    private Downloader createDownloader(DownloadRequest request) {
+        CacheDataSource.Factory cacheDataSourceFactory = new CacheDataSource.Factory()
+            .setCache(_downloadCache)
+            .setUpstreamDataSourceFactory(MediaPlayerHttpDataSource.createFactory(getHeaders(request)));
+        return new DefaultDownloaderFactory(cacheDataSourceFactory, _segmentExecutor).createDownloader(request);
+    }
+
+    // The request data is persisted with the download, so headers survive a restart of the app.
+    private static byte[] createRequestData(String title, Map<String, String> headers) throws JSONException {
+        JSONObject data = new JSONObject();
+        data.put("title", title);
+        if (headers != null && !headers.isEmpty()) {
+            data.put("headers", new JSONObject(headers));
+        }
+        return Util.getUtf8Bytes(data.toString());
+    }
+
+    @Nullable
+    private static JSONObject readRequestData(DownloadRequest request) {
+        try {
+            return new JSONObject(Util.fromUtf8Bytes(request.data));
+        } catch (JSONException err) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Map<String, String> getHeaders(DownloadRequest request) {
+        JSONObject data = readRequestData(request);
+        JSONObject storedHeaders = data != null ? data.optJSONObject("headers") : null;
+        if (storedHeaders == null) {
+            return null;
+        }
+        Map<String, String> headers = new HashMap<>();
+        Iterator<String> names = storedHeaders.keys();
+        while (names.hasNext()) {
+            String name = names.next();
+            headers.put(name, storedHeaders.optString(name));
+        }
+        return headers;
+    }
+
+    public static String getStateName(int state) {
+        return switch (state) {
+            case Download.STATE_QUEUED -> "queued";
+            case Download.STATE_DOWNLOADING -> "downloading";
+            case Download.STATE_STOPPED -> "paused";
+            case Download.STATE_COMPLETED -> "completed";
+            case Download.STATE_FAILED -> "failed";
+            case Download.STATE_REMOVING -> "removing";
+            case Download.STATE_RESTARTING -> "restarting";
+            default -> "unknown";
+        };
+    }
+
+    private static MediaPlayerDownloadManager getManager() {
+        if (_manager == null) {
+            throw new Error("You need to initialize the Download Manager before using it");
+        }
+        return _manager;
+    }
+
+    private void postDownload(Download download, String state) {
+        MediaPlayerNotificationCenter.post(
+            MediaPlayerNotification.create(MediaPlayerNotificationCenter.NOTIFICATION_TYPE.MEDIA_PLAYER_DOWNLOAD)
+                .coalesceBy(download.request.id)
+                .addData("url", download.request.id)
+                .addData("state", state)
+                .addData("percentDownloaded", Math.max(0, download.getPercentDownloaded()))
+                .addData("bytesDownloaded", download.getBytesDownloaded())
+                .build()
+        );
+    }
+}
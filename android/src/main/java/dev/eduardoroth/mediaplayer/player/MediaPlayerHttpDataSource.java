@@ -0,0 +1,40 @@
+package dev.eduardoroth.mediaplayer.player;
+
+import androidx.annotation.OptIn;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.okhttp.OkHttpDataSource;
+import dev.eduardoroth.mediaplayer.models.HttpOptions;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+
+// Every player shares one OkHttpClient, so segment requests reuse kept-alive connections instead of opening new ones.
+@OptIn(markerClass = UnstableApi.class)
+public class MediaPlayerHttpDataSource {
+
+    private static OkHttpClient _client;
+
+    public static void init(HttpOptions options) {
+        if (_client != null) {
+            return;
+        }
+        _client = new OkHttpClient.Builder()
+            .connectionPool(new ConnectionPool(options.maxIdleConnections, options.keepAliveMs, TimeUnit.MILLISECONDS))
+            .connectTimeout(options.connectTimeoutMs, TimeUnit.MILLISECONDS)
+            .readTimeout(options.readTimeoutMs, TimeUnit.MILLISECONDS)
+            .retryOnConnectionFailure(true)
+            .build();
+    }
+
+    public static OkHttpDataSource.Factory createFactory(Map<String, String> headers) {
+        if (_client == null) {
+            throw new Error("You need to initialize the HTTP Data Source before using it");
+        }
+        OkHttpDataSource.Factory factory = new OkHttpDataSource.Factory(_client);
+        if (headers != null && !headers.isEmpty()) {
+            factory.setDefaultRequestProperties(headers);
+        }
+        return factory;
+    }
+}
@@ -0,0 +1,153 @@
+package dev.eduardoroth.mediaplayer.player;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.OptIn;
+import androidx.media3.common.C;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.common.util.Util;
+import androidx.media3.exoplayer.DefaultLoadControl;
+import androidx.media3.exoplayer.analytics.PlayerId;
+import androidx.media3.exoplayer.upstream.DefaultAllocator;
+import dev.eduardoroth.mediaplayer.models.BufferProfile;
+import java.util.ArrayList;
+
+// Loads like DefaultLoadControl, but holds off while a player with a higher load priority is still filling its
+// buffer, so a muted preview in a feed doesn't take bandwidth from the video that is being watched. With a memory
+// budget, the bytes every player may hold in its buffer are a share of it weighted by the same priority.
+@OptIn(markerClass = UnstableApi.class)
+public class MediaPlayerLoadControl extends DefaultLoadControl {
+
+    public static final int PRIORITY_BACKGROUND = 0;
+    public static final int PRIORITY_EMBEDDED = 1;
+    public static final int PRIORITY_PLAYING = 2;
+    public static final int PRIORITY_FOREGROUND = 3;
+
+    private static final ArrayList<MediaPlayerLoadControl> _loadControls = new ArrayList<>();
+    private static volatile long _memoryBudgetBytes = 0;
+
+    private final long _healthyBufferUs;
+    private final long _playbackBufferUs;
+    // Written on the main thread and read on the playback threads of every player.
+    private volatile int _priority = PRIORITY_EMBEDDED;
+    private volatile long _lastPlayedAt = 0;
+    private volatile boolean _isFillingBuffer = false;
+    private volatile boolean _isPrepared = false;
+
+    MediaPlayerLoadControl(BufferProfile bufferProfile) {
+        super(
+            new DefaultAllocator(true, C.DEFAULT_BUFFER_SEGMENT_SIZE),
+            bufferProfile.minBufferMs,
+            bufferProfile.maxBufferMs,
+            bufferProfile.bufferForPlaybackMs,
+            bufferProfile.bufferForPlaybackAfterRebufferMs,
+            bufferProfile.targetBufferBytes,
+            bufferProfile.targetBufferBytes == -1,
+            bufferProfile.backBufferMs,
+            false
+        );
+        _healthyBufferUs = Util.msToUs(bufferProfile.minBufferMs);
+        _playbackBufferUs = Util.msToUs(bufferProfile.bufferForPlaybackAfterRebufferMs);
+        synchronized (_loadControls) {
+            _loadControls.add(this);
+        }
+    }
+
+    // 0 or less lets every player buffer up to its own profile.
+    static void setMemoryBudget(long memoryBudgetBytes) {
+        _memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    static long getMemoryBudget() {
+        return _memoryBudgetBytes;
+    }
+
+    // Ties between players of the same priority go to the one that started playing last.
+    void setPriority(int priority, long lastPlayedAt) {
+        _priority = priority;
+        _lastPlayedAt = lastPlayedAt;
+    }
+
+    public long getAllocatedBytes() {
+        return getAllocator().getTotalBytesAllocated();
+    }
+
+    // Each priority level weighs twice the one below it, C.LENGTH_UNSET when there is no budget.
+    public long getBudgetShareBytes() {
+        long memoryBudgetBytes = _memoryBudgetBytes;
+        if (memoryBudgetBytes <= 0) {
+            return C.LENGTH_UNSET;
+        }
+        long totalWeight = 0;
+        synchronized (_loadControls) {
+            for (MediaPlayerLoadControl loadControl : _loadControls) {
+                if (loadControl._isPrepared || loadControl == this) {
+                    totalWeight += 1L << loadControl._priority;
+                }
+            }
+        }
+        return memoryBudgetBytes * (1L << _priority) / totalWeight;
+    }
+
+    void release() {
+        _isFillingBuffer = false;
+        _isPrepared = false;
+        synchronized (_loadControls) {
+            _loadControls.remove(this);
+        }
+    }
+
+    @Override
+    public boolean shouldContinueLoading(@NonNull Parameters parameters) {
+        boolean shouldContinueLoading = super.shouldContinueLoading(parameters);
+        _isFillingBuffer = shouldContinueLoading && parameters.bufferedDurationUs < _healthyBufferUs;
+        if (!shouldContinueLoading) {
+            return false;
+        }
+        // Media3 fails a player that keeps buffering without loading, so one that needs data to keep playing never waits.
+        if (parameters.playWhenReady && parameters.bufferedDurationUs < _playbackBufferUs) {
+            return true;
+        }
+        long budgetShareBytes = getBudgetShareBytes();
+        if (budgetShareBytes != C.LENGTH_UNSET && getAllocatedBytes() >= budgetShareBytes) {
+            return false;
+        }
+        return !isOutranked();
+    }
+
+    @Override
+    public void onPrepared(@NonNull PlayerId playerId) {
+        super.onPrepared(playerId);
+        _isPrepared = true;
+    }
+
+    @Override
+    public void onStopped(@NonNull PlayerId playerId) {
+        super.onStopped(playerId);
+        _isFillingBuffer = false;
+        _isPrepared = false;
+    }
+
+    @Override
+    public void onReleased(@NonNull PlayerId playerId) {
+        super.onReleased(playerId);
+        _isFillingBuffer = false;
+        _isPrepared = false;
+    }
+
+    private boolean isOutranked() {
+        synchronized (_loadControls) {
+            for (MediaPlayerLoadControl loadControl : _loadControls) {
+                if (loadControl != this && loadControl._isFillingBuffer && loadControl.outranks(this)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean outranks(MediaPlayerLoadControl other) {
+        int priority = _priority;
+        int otherPriority = other._priority;
+        return priority > otherPriority || (priority == otherPriority && _lastPlayedAt > other._lastPlayedAt);
+    }
+}
@@ -0,0 +1,120 @@
+package dev.eduardoroth.mediaplayer.player;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.OptIn;
+import androidx.media3.common.C;
+import androidx.media3.common.Format;
+import androidx.media3.common.MediaItem;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.common.util.Util;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.exoplayer.dash.DashMediaSource;
+import androidx.media3.exoplayer.dash.DefaultDashChunkSource;
+import androidx.media3.exoplayer.drm.DrmSessionManagerProvider;
+import androidx.media3.exoplayer.hls.HlsMediaSource;
+import androidx.media3.exoplayer.smoothstreaming.DefaultSsChunkSource;
+import androidx.media3.exoplayer.smoothstreaming.SsMediaSource;
+import androidx.media3.exoplayer.source.DefaultMediaSourceFactory;
+import androidx.media3.exoplayer.source.MediaSource;
+import androidx.media3.exoplayer.source.MergingMediaSource;
+import androidx.media3.exoplayer.source.ProgressiveMediaSource;
+import androidx.media3.exoplayer.upstream.LoadErrorHandlingPolicy;
+import androidx.media3.extractor.Extractor;
+import androidx.media3.extractor.text.DefaultSubtitleParserFactory;
+import androidx.media3.extractor.text.SubtitleExtractor;
+import androidx.media3.extractor.text.SubtitleParser;
+import java.util.ArrayList;
+import java.util.List;
+
+// Loads HLS playlists and DASH and SmoothStreaming manifests, picked by request type rather than URL, through the
+// uncached factory so live streams stay fresh. Segments and everything else go through the media cache.
+@OptIn(markerClass = UnstableApi.class)
+public class MediaPlayerMediaSourceFactory implements MediaSource.Factory {
+
+    private final DataSource.Factory _dataSourceFactory;
+    private final DefaultMediaSourceFactory _defaultFactory;
+    private final HlsMediaSource.Factory _hlsFactory;
+    private final DashMediaSource.Factory _dashFactory;
+    private final SsMediaSource.Factory _ssFactory;
+    private final SubtitleParser.Factory _subtitleParserFactory = new DefaultSubtitleParserFactory();
+
+    public MediaPlayerMediaSourceFactory(MediaPlayerDataSourceFactory dataSourceFactory) {
+        DataSource.Factory manifestFactory = dataSourceFactory.getManifestFactory();
+        _dataSourceFactory = dataSourceFactory;
+        _defaultFactory = new DefaultMediaSourceFactory(dataSourceFactory);
+        _hlsFactory = new HlsMediaSource.Factory(dataType ->
+            dataType == C.DATA_TYPE_MANIFEST ? manifestFactory.createDataSource() : dataSourceFactory.createDataSource()
+        );
+        _dashFactory = new DashMediaSource.Factory(new DefaultDashChunkSource.Factory(dataSourceFactory), manifestFactory);
+        _ssFactory = new SsMediaSource.Factory(new DefaultSsChunkSource.Factory(dataSourceFactory), manifestFactory);
+    }
+
+    @NonNull
+    @Override
+    public MediaSource.Factory setDrmSessionManagerProvider(@NonNull DrmSessionManagerProvider drmSessionManagerProvider) {
+        _defaultFactory.setDrmSessionManagerProvider(drmSessionManagerProvider);
+        _hlsFactory.setDrmSessionManagerProvider(drmSessionManagerProvider);
+        _dashFactory.setDrmSessionManagerProvider(drmSessionManagerProvider);
+        _ssFactory.setDrmSessionManagerProvider(drmSessionManagerProvider);
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public MediaSource.Factory setLoadErrorHandlingPolicy(@NonNull LoadErrorHandlingPolicy loadErrorHandlingPolicy) {
+        _defaultFactory.setLoadErrorHandlingPolicy(loadErrorHandlingPolicy);
+        _hlsFactory.setLoadErrorHandlingPolicy(loadErrorHandlingPolicy);
+        _dashFactory.setLoadErrorHandlingPolicy(loadErrorHandlingPolicy);
+        _ssFactory.setLoadErrorHandlingPolicy(loadErrorHandlingPolicy);
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public int[] getSupportedTypes() {
+        return new int[] { C.CONTENT_TYPE_DASH, C.CONTENT_TYPE_SS, C.CONTENT_TYPE_HLS, C.CONTENT_TYPE_OTHER };
+    }
+
+    @NonNull
+    @Override
+    public MediaSource createMediaSource(@NonNull MediaItem mediaItem) {
+        MediaItem.LocalConfiguration localConfiguration = mediaItem.localConfiguration;
+        if (localConfiguration == null) {
+            return _defaultFactory.createMediaSource(mediaItem);
+        }
+        MediaSource.Factory adaptiveFactory = switch (Util.inferContentTypeForUriAndMimeType(localConfiguration.uri, localConfiguration.mimeType)) {
+            case C.CONTENT_TYPE_HLS -> _hlsFactory;
+            case C.CONTENT_TYPE_DASH -> _dashFactory;
+            case C.CONTENT_TYPE_SS -> _ssFactory;
+            default -> null;
+        };
+        if (adaptiveFactory == null) {
+            return _defaultFactory.createMediaSource(mediaItem);
+        }
+        // The adaptive factories ignore sideloaded subtitles, DefaultMediaSourceFactory merges them in the same way.
+        List<MediaSource> mediaSources = new ArrayList<>();
+        mediaSources.add(adaptiveFactory.createMediaSource(mediaItem));
+        for (MediaItem.SubtitleConfiguration subtitle : localConfiguration.subtitleConfigurations) {
+            Format format = new Format.Builder()
+                .setSampleMimeType(subtitle.mimeType)
+                .setLanguage(subtitle.language)
+                .setSelectionFlags(subtitle.selectionFlags)
+                .setRoleFlags(subtitle.roleFlags)
+                .setLabel(subtitle.label)
+                .setId(subtitle.id)
+                .build();
+            if (!_subtitleParserFactory.supportsFormat(format)) {
+                continue;
+            }
+            mediaSources.add(
+                new ProgressiveMediaSource.Factory(_dataSourceFactory, () ->
+                    new Extractor[] { new SubtitleExtractor(_subtitleParserFactory.create(format), format) }
+                ).createMediaSource(MediaItem.fromUri(subtitle.uri))
+            );
+        }
+        if (mediaSources.size() == 1) {
+            return mediaSources.get(0);
+        }
+        return new MergingMediaSource(mediaSources.toArray(new MediaSource[0]));
+    }
+}
@@ -0,0 +1,397 @@
+package dev.eduardoroth.mediaplayer.player;
+
+import static android.media.MediaCodec.VIDEO_SCALING_MODE_SCALE_TO_FIT;
+import static androidx.media3.common.C.ALLOW_CAPTURE_BY_SYSTEM;
+import static androidx.media3.common.C.AUDIO_CONTENT_TYPE_MOVIE;
+import static androidx.media3.common.C.USAGE_MEDIA;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Process;
+import android.os.SystemClock;
+import androidx.annotation.OptIn;
+import androidx.annotation.VisibleForTesting;
+import androidx.media3.common.AudioAttributes;
+import androidx.media3.common.PlaybackParameters;
+import androidx.media3.common.Player;
+import androidx.media3.common.TrackSelectionParameters;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.exoplayer.trackselection.AdaptiveTrackSelection;
+import androidx.media3.exoplayer.trackselection.DefaultTrackSelector;
+import dev.eduardoroth.mediaplayer.MediaPlayerService;
+import dev.eduardoroth.mediaplayer.models.BufferProfile;
+import dev.eduardoroth.mediaplayer.models.PlayerPoolOptions;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+// Every method must be called from the main thread, which is the application looper of the pooled players.
+public class MediaPlayerPool {
+
+    public record PoolStats(
+        int idle,
+        int minIdle,
+        int maxIdle,
+        long idleTimeoutMs,
+        long hits,
+        long misses,
+        long created,
+        long recycled,
+        long evicted,
+        int playbackThreads,
+        long memoryBudget,
+        long allocatedBytes
+    ) {}
+
+    private record PooledPlayer(ExoPlayer player, BufferProfile bufferProfile, long idleSince) {}
+
+    public interface PlayerBuilderCustomizer {
+        void customize(ExoPlayer.Builder builder);
+    }
+
+    private static MediaPlayerPool _pool;
+    private static PlayerBuilderCustomizer _builderCustomizer;
+
+    private final Context _context;
+    private final PlayerPoolOptions _options;
+    private final ArrayDeque<PooledPlayer> _idlePlayers = new ArrayDeque<>();
+    private final HashMap<ExoPlayer, BufferProfile> _playerProfiles = new HashMap<>();
+    private final HashMap<ExoPlayer, MediaPlayerDataSourceFactory> _dataSourceFactories = new HashMap<>();
+    private final HashMap<ExoPlayer, MediaPlayerLoadControl> _loadControls = new HashMap<>();
+    private final HashMap<ExoPlayer, MediaPlayerWorkClock> _workClocks = new HashMap<>();
+    private final HandlerThread[] _playbackThreads;
+    private final HashMap<ExoPlayer, HandlerThread> _playerThreads = new HashMap<>();
+    private final Handler _handler = new Handler(Looper.getMainLooper());
+    private final Runnable _evictIdlePlayers = this::evictIdlePlayers;
+    private final MessageQueue.IdleHandler _warmUp = this::warmUp;
+    private boolean _isWarmingUp = false;
+    private boolean _isUnderMemoryPressure = false;
+
+    private long _hits = 0;
+    private long _misses = 0;
+    private long _created = 0;
+    private long _recycled = 0;
+    private long _evicted = 0;
+
+    private MediaPlayerPool(Context context, PlayerPoolOptions options) {
+        _context = context;
+        _options = options;
+        _playbackThreads = new HandlerThread[options.playbackThreads];
+    }
+
+    public static void init(Context context, PlayerPoolOptions options) {
+        clear();
+        _pool = new MediaPlayerPool(context.getApplicationContext(), options);
+        MediaPlayerLoadControl.setMemoryBudget(options.memoryBudgetBytes);
+        _pool.scheduleWarmUp();
+    }
+
+    // Lets tests build every pooled player with a fake clock and renderers.
+    @VisibleForTesting
+    public static void setPlayerBuilderCustomizer(PlayerBuilderCustomizer builderCustomizer) {
+        _builderCustomizer = builderCustomizer;
+    }
+
+    public static ExoPlayer acquire(BufferProfile bufferProfile, Map<String, String> headers) {
+        MediaPlayerPool pool = getPool();
+        // A new player means the app is in use again, so the pool may refill once this one is taken.
+        pool._isUnderMemoryPressure = false;
+        ExoPlayer player = pool.take(bufferProfile);
+        MediaPlayerDataSourceFactory dataSourceFactory = pool._dataSourceFactories.get(player);
+        if (dataSourceFactory != null) {
+            dataSourceFactory.setHeaders(headers);
+        }
+        return player;
+    }
+
+    // See MediaPlayerLoadControl for the priorities, players left at the default share bandwidth as before.
+    public static void setLoadPriority(ExoPlayer player, int priority, long lastPlayedAt) {
+        MediaPlayerLoadControl loadControl = getPool()._loadControls.get(player);
+        if (loadControl != null) {
+            loadControl.setPriority(priority, lastPlayedAt);
+        }
+    }
+
+    public static void recycle(ExoPlayer player) {
+        MediaPlayerPool pool = getPool();
+        BufferProfile bufferProfile = pool._playerProfiles.remove(player);
+        if (bufferProfile == null || pool._idlePlayers.size() >= pool._options.maxIdle) {
+            pool.release(player);
+            return;
+        }
+        pool.reset(player);
+        pool._idlePlayers.addFirst(new PooledPlayer(player, bufferProfile, SystemClock.elapsedRealtime()));
+        pool._recycled++;
+        pool.scheduleEviction();
+    }
+
+    public static void clear() {
+        if (_pool == null) {
+            return;
+        }
+        _pool._handler.removeCallbacks(_pool._evictIdlePlayers);
+        _pool.cancelWarmUp();
+        PooledPlayer pooledPlayer;
+        while ((pooledPlayer = _pool._idlePlayers.pollLast()) != null) {
+            _pool.release(pooledPlayer.player());
+        }
+        _pool.quitUnusedPlaybackThreads();
+    }
+
+    // Releases the idle players and holds off warming up again until the next player is acquired.
+    public static void onMemoryPressure() {
+        if (_pool == null) {
+            return;
+        }
+        _pool._isUnderMemoryPressure = true;
+        clear();
+    }
+
+    // Null when the player wasn't built by the pool.
+    public static MediaPlayerWorkClock getWorkClock(ExoPlayer player) {
+        return getPool()._workClocks.get(player);
+    }
+
+    // Null when the player wasn't built by the pool.
+    public static MediaPlayerLoadControl getLoadControl(ExoPlayer player) {
+        return getPool()._loadControls.get(player);
+    }
+
+    // 0 when players aren't capped.
+    public static int getMaxActivePlayers() {
+        return getPool()._options.maxActivePlayers;
+    }
+
+    public static PoolStats getStats() {
+        MediaPlayerPool pool = getPool();
+        return new PoolStats(
+            pool._idlePlayers.size(),
+            pool._options.minIdle,
+            pool._options.maxIdle,
+            pool._options.idleTimeoutMs,
+            pool._hits,
+            pool._misses,
+            pool._created,
+            pool._recycled,
+            pool._evicted,
+            pool.countPlaybackThreads(),
+            MediaPlayerLoadControl.getMemoryBudget(),
+            pool.countAllocatedBytes()
+        );
+    }
+
+    private static MediaPlayerPool getPool() {
+        if (_pool == null) {
+            throw new Error("You need to initialize the Player Pool before using it");
+        }
+        return _pool;
+    }
+
+    private ExoPlayer take(BufferProfile bufferProfile) {
+        // The load control is fixed once a player is built, so only players with the same buffer profile can be reused.
+        Iterator<PooledPlayer> idlePlayers = _idlePlayers.iterator();
+        while (idlePlayers.hasNext()) {
+            PooledPlayer pooledPlayer = idlePlayers.next();
+            if (pooledPlayer.bufferProfile().equals(bufferProfile)) {
+                idlePlayers.remove();
+                _hits++;
+                _playerProfiles.put(pooledPlayer.player(), pooledPlayer.bufferProfile());
+                scheduleWarmUp();
+                return pooledPlayer.player();
+            }
+        }
+        _misses++;
+        ExoPlayer player = buildPlayer(bufferProfile);
+        _playerProfiles.put(player, bufferProfile);
+        scheduleWarmUp();
+        return player;
+    }
+
+    @OptIn(markerClass = UnstableApi.class)
+    private ExoPlayer buildPlayer(BufferProfile bufferProfile) {
+        MediaPlayerDataSourceFactory dataSourceFactory = new MediaPlayerDataSourceFactory();
+        MediaPlayerLoadControl loadControl = new MediaPlayerLoadControl(bufferProfile);
+        MediaPlayerWorkClock workClock = new MediaPlayerWorkClock();
+        HandlerThread playbackThread = getPlaybackThread();
+        ExoPlayer.Builder builder = new ExoPlayer.Builder(_context)
+            .setClock(workClock)
+            .setTrackSelector(new DefaultTrackSelector(_context, new AdaptiveTrackSelection.Factory()))
+            .setLoadControl(loadControl)
+            .setBandwidthMeter(MediaPlayerBandwidthMeter.get())
+            .setMediaSourceFactory(new MediaPlayerMediaSourceFactory(dataSourceFactory))
+            .setDeviceVolumeControlEnabled(true)
+            .setSeekBackIncrementMs(MediaPlayerService.VIDEO_STEP)
+            .setSeekForwardIncrementMs(MediaPlayerService.VIDEO_STEP)
+            .setVideoScalingMode(VIDEO_SCALING_MODE_SCALE_TO_FIT);
+        if (playbackThread != null) {
+            builder.setPlaybackLooper(playbackThread.getLooper());
+        }
+        if (_builderCustomizer != null) {
+            _builderCustomizer.customize(builder);
+        }
+        ExoPlayer exoPlayer = builder.build();
+
+        exoPlayer.setAudioAttributes(
+            new AudioAttributes.Builder()
+                .setContentType(AUDIO_CONTENT_TYPE_MOVIE)
+                .setAllowedCapturePolicy(ALLOW_CAPTURE_BY_SYSTEM)
+                .setUsage(USAGE_MEDIA)
+                .build(),
+            true
+        );
+        _dataSourceFactories.put(exoPlayer, dataSourceFactory);
+        _loadControls.put(exoPlayer, loadControl);
+        _workClocks.put(exoPlayer, workClock);
+        if (playbackThread != null) {
+            _playerThreads.put(exoPlayer, playbackThread);
+        }
+        _created++;
+        return exoPlayer;
+    }
+
+    private void release(ExoPlayer player) {
+        _dataSourceFactories.remove(player);
+        MediaPlayerLoadControl loadControl = _loadControls.remove(player);
+        if (loadControl != null) {
+            loadControl.release();
+        }
+        _workClocks.remove(player);
+        // A shared playback looper outlives the player, ExoPlayer only quits the threads it started itself.
+        player.release();
+        _playerThreads.remove(player);
+        _evicted++;
+    }
+
+    @OptIn(markerClass = UnstableApi.class)
+    private void reset(ExoPlayer player) {
+        player.stop();
+        player.clearMediaItems();
+        player.clearVideoSurface();
+        player.setPlayWhenReady(false);
+        player.setRepeatMode(Player.REPEAT_MODE_OFF);
+        player.setVolume(1f);
+        player.setPlaybackParameters(PlaybackParameters.DEFAULT);
+        player.setTrackSelectionParameters(TrackSelectionParameters.getDefaults(_context));
+        player.setPreloadConfiguration(ExoPlayer.PreloadConfiguration.DEFAULT);
+        MediaPlayerDataSourceFactory dataSourceFactory = _dataSourceFactories.get(player);
+        if (dataSourceFactory != null) {
+            dataSourceFactory.setHeaders(null);
+        }
+        MediaPlayerLoadControl loadControl = _loadControls.get(player);
+        if (loadControl != null) {
+            loadControl.setPriority(MediaPlayerLoadControl.PRIORITY_EMBEDDED, 0);
+        }
+        MediaPlayerWorkClock workClock = _workClocks.get(player);
+        if (workClock != null) {
+            workClock.reset();
+        }
+    }
+
+    // Players are spread over the shared threads by how many each one already runs, null means one thread per player.
+    private HandlerThread getPlaybackThread() {
+        if (_playbackThreads.length == 0) {
+            return null;
+        }
+        int[] playerCounts = new int[_playbackThreads.length];
+        for (HandlerThread playerThread : _playerThreads.values()) {
+            for (int i = 0; i < _playbackThreads.length; i++) {
+                if (_playbackThreads[i] == playerThread) {
+                    playerCounts[i]++;
+                }
+            }
+        }
+        int leastUsed = 0;
+        for (int i = 1; i < _playbackThreads.length; i++) {
+            if (playerCounts[i] < playerCounts[leastUsed]) {
+                leastUsed = i;
+            }
+        }
+        if (_playbackThreads[leastUsed] == null) {
+            // Same priority ExoPlayer gives the playback thread it creates.
+            _playbackThreads[leastUsed] = new HandlerThread("MediaPlayer:Playback-" + leastUsed, Process.THREAD_PRIORITY_AUDIO);
+            _playbackThreads[leastUsed].start();
+        }
+        return _playbackThreads[leastUsed];
+    }
+
+    private int countPlaybackThreads() {
+        if (_playbackThreads.length == 0) {
+            return _playerProfiles.size() + _idlePlayers.size();
+        }
+        int started = 0;
+        for (HandlerThread playbackThread : _playbackThreads) {
+            if (playbackThread != null) {
+                started++;
+            }
+        }
+        return started;
+    }
+
+    private long countAllocatedBytes() {
+        long allocatedBytes = 0;
+        for (MediaPlayerLoadControl loadControl : _loadControls.values()) {
+            allocatedBytes += loadControl.getAllocatedBytes();
+        }
+        return allocatedBytes;
+    }
+
+    private void quitUnusedPlaybackThreads() {
+        for (int i = 0; i < _playbackThreads.length; i++) {
+            if (_playbackThreads[i] != null && !_playerThreads.containsValue(_playbackThreads[i])) {
+                _playbackThreads[i].quitSafely();
+                _playbackThreads[i] = null;
+            }
+        }
+    }
+
+    private void scheduleWarmUp() {
+        if (_isWarmingUp || _isUnderMemoryPressure || _idlePlayers.size() >= _options.minIdle) {
+            return;
+        }
+        _isWarmingUp = true;
+        // Build one player per idle pass so warming up never competes with rendering work.
+        Looper.getMainLooper().getQueue().addIdleHandler(_warmUp);
+    }
+
+    private boolean warmUp() {
+        if (_pool != this || _isUnderMemoryPressure || _idlePlayers.size() >= _options.minIdle) {
+            _isWarmingUp = false;
+            return false;
+        }
+        BufferProfile bufferProfile = BufferProfile.fromName(BufferProfile.DEFAULT);
+        _idlePlayers.addLast(new PooledPlayer(buildPlayer(bufferProfile), bufferProfile, SystemClock.elapsedRealtime()));
+        return true;
+    }
+
+    private void cancelWarmUp() {
+        Looper.getMainLooper().getQueue().removeIdleHandler(_warmUp);
+        _isWarmingUp = false;
+    }
+
+    private void scheduleEviction() {
+        _handler.removeCallbacks(_evictIdlePlayers);
+        if (_idlePlayers.size() > _options.minIdle) {
+            PooledPlayer oldest = _idlePlayers.peekLast();
+            long idleFor = SystemClock.elapsedRealtime() - oldest.idleSince();
+            _handler.postDelayed(_evictIdlePlayers, Math.max(0, _options.idleTimeoutMs - idleFor));
+        }
+    }
+
+    private void evictIdlePlayers() {
+        long now = SystemClock.elapsedRealtime();
+        while (_idlePlayers.size() > _options.minIdle) {
+            PooledPlayer oldest = _idlePlayers.peekLast();
+            if (now - oldest.idleSince() < _options.idleTimeoutMs) {
+                break;
+            }
+            _idlePlayers.pollLast();
+            release(oldest.player());
+        }
+        scheduleEviction();
+    }
+}
@@ -0,0 +1,372 @@
+package dev.eduardoroth.mediaplayer.player;
+
+import android.net.Uri;
+import androidx.annotation.OptIn;
+import androidx.media3.common.C;
+import androidx.media3.common.Format;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.common.util.UriUtil;
+import androidx.media3.common.util.Util;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.CacheWriter;
+import androidx.media3.exoplayer.dash.DashSegmentIndex;
+import androidx.media3.exoplayer.dash.DashUtil;
+import androidx.media3.exoplayer.dash.DashWrappingSegmentIndex;
+import androidx.media3.exoplayer.dash.manifest.AdaptationSet;
+import androidx.media3.exoplayer.dash.manifest.DashManifest;
+import androidx.media3.exoplayer.dash.manifest.RangedUri;
+import androidx.media3.exoplayer.dash.manifest.Representation;
+import androidx.media3.exoplayer.hls.playlist.HlsMediaPlaylist;
+import androidx.media3.exoplayer.hls.playlist.HlsMultivariantPlaylist;
+import androidx.media3.exoplayer.hls.playlist.HlsPlaylist;
+import androidx.media3.exoplayer.hls.playlist.HlsPlaylistParser;
+import androidx.media3.exoplayer.smoothstreaming.manifest.SsManifest;
+import androidx.media3.exoplayer.smoothstreaming.manifest.SsManifestParser;
+import androidx.media3.exoplayer.smoothstreaming.manifest.SsUtil;
+import androidx.media3.exoplayer.upstream.ParsingLoadable;
+import androidx.media3.extractor.ChunkIndex;
+import dev.eduardoroth.mediaplayer.models.PreloadOptions;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Warms the shared cache with the first seconds of a stream, so a later create starts from disk. Manifests are read
+// uncached, like the player reads them, and only segments and progressive media are written.
+@OptIn(markerClass = UnstableApi.class)
+public class MediaPlayerPreloader {
+
+    public interface OnPreloadFinished {
+        void finished(long bytesCached, Exception error);
+    }
+
+    // Same share of the estimate AdaptiveTrackSelection uses, so the warmed variant is the one the player starts with.
+    private static final float BANDWIDTH_FRACTION = 0.7f;
+
+    private static MediaPlayerPreloader _preloader;
+
+    private final PreloadOptions _options;
+    private final ThreadPoolExecutor _executor;
+    private final ConcurrentHashMap<String, PreloadTask> _tasks = new ConcurrentHashMap<>();
+
+    private MediaPlayerPreloader(PreloadOptions options) {
+        _options = options;
+        _executor = new ThreadPoolExecutor(
+            options.maxConcurrent,
+            options.maxConcurrent,
+            30,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>()
+        );
+        _executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static void init(PreloadOptions options) {
+        if (_preloader == null) {
+            _preloader = new MediaPlayerPreloader(options);
+        }
+    }
+
+    public static void preload(String url, Map<String, String> headers, Long durationMs, Long bitrate, OnPreloadFinished onFinished) {
+        MediaPlayerPreloader preloader = getPreloader();
+        if (!url.startsWith("http")) {
+            throw new Error("Only network URLs can be preloaded");
+        }
+        PreloadTask task = new PreloadTask(
+            url,
+            MediaPlayerCache.createCacheDataSource(headers),
+            MediaPlayerCache.getManifestDataSourceFactory(headers).createDataSource(),
+            Util.msToUs(durationMs != null ? Math.max(0, durationMs) : preloader._options.durationMs),
+            bitrate != null && bitrate > 0 ? bitrate : C.LENGTH_UNSET,
+            preloader._options.maxBytes,
+            onFinished
+        );
+        if (preloader._tasks.putIfAbsent(url, task) != null) {
+            throw new Error("The URL is already being preloaded");
+        }
+        task._future = preloader._executor.submit(task);
+    }
+
+    public static boolean cancel(String url) {
+        PreloadTask task = getPreloader()._tasks.remove(url);
+        if (task == null) {
+            return false;
+        }
+        task.cancel();
+        return true;
+    }
+
+    private static MediaPlayerPreloader getPreloader() {
+        if (_preloader == null) {
+            throw new Error("You need to initialize the Preloader before using it");
+        }
+        return _preloader;
+    }
+
+    private static class PreloadTask implements Runnable {
+
+        private final String _url;
+        private final CacheDataSource _dataSource;
+        private final DataSource _manifestDataSource;
+        private final long _durationUs;
+        private final long _bitrate;
+        private final long _maxBytes;
+        private final OnPreloadFinished _onFinished;
+        private final AtomicBoolean _finished = new AtomicBoolean(false);
+        private volatile boolean _canceled = false;
+        private volatile CacheWriter _cacheWriter;
+        private volatile Future<?> _future;
+        private long _bytesCached = 0;
+
+        PreloadTask(
+            String url,
+            CacheDataSource dataSource,
+            DataSource manifestDataSource,
+            long durationUs,
+            long bitrate,
+            long maxBytes,
+            OnPreloadFinished onFinished
+        ) {
+            _url = url;
+            _dataSource = dataSource;
+            _manifestDataSource = manifestDataSource;
+            _durationUs = durationUs;
+            _bitrate = bitrate;
+            _maxBytes = maxBytes;
+            _onFinished = onFinished;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Uri uri = Uri.parse(_url);
+                switch (Util.inferContentType(uri)) {
+                    case C.CONTENT_TYPE_HLS -> preloadHls(uri);
+                    case C.CONTENT_TYPE_DASH -> preloadDash(uri);
+                    case C.CONTENT_TYPE_SS -> preloadSmoothStreaming(SsUtil.fixManifestUri(uri));
+                    case C.CONTENT_TYPE_OTHER -> cache(
+                        new DataSpec.Builder().setUri(uri).setLength(getProgressiveLength()).build()
+                    );
+                    default -> throw new IOException("The stream type can't be preloaded");
+                }
+                finish(null);
+            } catch (Exception err) {
+                finish(err);
+            } finally {
+                _preloader._tasks.remove(_url, this);
+            }
+        }
+
+        void cancel() {
+            _canceled = true;
+            CacheWriter cacheWriter = _cacheWriter;
+            if (cacheWriter != null) {
+                cacheWriter.cancel();
+            }
+            Future<?> future = _future;
+            if (future != null && future.cancel(false)) {
+                finish(new InterruptedIOException("Preload cancelled"));
+            }
+        }
+
+        private void preloadHls(Uri uri) throws IOException {
+            HlsPlaylist playlist = ParsingLoadable.load(_manifestDataSource, new HlsPlaylistParser(), new DataSpec(uri), C.DATA_TYPE_MANIFEST);
+            if (playlist instanceof HlsMediaPlaylist mediaPlaylist) {
+                preloadMediaPlaylist(mediaPlaylist);
+                return;
+            }
+            HlsMultivariantPlaylist multivariantPlaylist = (HlsMultivariantPlaylist) playlist;
+            HlsMultivariantPlaylist.Variant variant = selectVariant(multivariantPlaylist);
+            if (variant != null) {
+                preloadMediaPlaylist(variant.url);
+            }
+            if (!multivariantPlaylist.audios.isEmpty() && multivariantPlaylist.audios.get(0).url != null) {
+                preloadMediaPlaylist(multivariantPlaylist.audios.get(0).url);
+            }
+        }
+
+        private void preloadMediaPlaylist(Uri uri) throws IOException {
+            checkCanceled();
+            HlsPlaylist playlist = ParsingLoadable.load(_manifestDataSource, new HlsPlaylistParser(), new DataSpec(uri), C.DATA_TYPE_MANIFEST);
+            if (playlist instanceof HlsMediaPlaylist mediaPlaylist) {
+                preloadMediaPlaylist(mediaPlaylist);
+            }
+        }
+
+        private void preloadMediaPlaylist(HlsMediaPlaylist mediaPlaylist) throws IOException {
+            if (!mediaPlaylist.hasEndTag) {
+                // The first seconds of a live playlist are behind its moving edge by the time the player starts.
+                return;
+            }
+            Set<Uri> initializationSegments = new HashSet<>();
+            for (HlsMediaPlaylist.Segment segment : mediaPlaylist.segments) {
+                if (segment.relativeStartTimeUs >= _durationUs || _bytesCached >= _maxBytes) {
+                    break;
+                }
+                HlsMediaPlaylist.Segment initializationSegment = segment.initializationSegment;
+                if (initializationSegment != null) {
+                    Uri initializationUri = UriUtil.resolveToUri(mediaPlaylist.baseUri, initializationSegment.url);
+                    if (initializationSegments.add(initializationUri)) {
+                        cache(getSegmentDataSpec(initializationUri, initializationSegment));
+                    }
+                }
+                cache(getSegmentDataSpec(UriUtil.resolveToUri(mediaPlaylist.baseUri, segment.url), segment));
+            }
+        }
+
+        private DataSpec getSegmentDataSpec(Uri uri, HlsMediaPlaylist.Segment segment) {
+            return new DataSpec.Builder().setUri(uri).setPosition(segment.byteRangeOffset).setLength(segment.byteRangeLength).build();
+        }
+
+        private HlsMultivariantPlaylist.Variant selectVariant(HlsMultivariantPlaylist playlist) {
+            Format[] formats = new Format[playlist.variants.size()];
+            for (int i = 0; i < formats.length; i++) {
+                formats[i] = playlist.variants.get(i).format;
+            }
+            int selected = selectFormat(formats);
+            return selected != C.INDEX_UNSET ? playlist.variants.get(selected) : null;
+        }
+
+        private void preloadDash(Uri uri) throws IOException {
+            DashManifest manifest = DashUtil.loadManifest(_manifestDataSource, uri);
+            if (manifest.dynamic || manifest.getPeriodCount() == 0) {
+                return;
+            }
+            long periodDurationUs = manifest.getPeriodDurationUs(0);
+            Set<Integer> trackTypes = new HashSet<>();
+            for (AdaptationSet adaptationSet : manifest.getPeriod(0).adaptationSets) {
+                boolean isAudioOrVideo = adaptationSet.type == C.TRACK_TYPE_VIDEO || adaptationSet.type == C.TRACK_TYPE_AUDIO;
+                if (!isAudioOrVideo || !trackTypes.add(adaptationSet.type)) {
+                    continue;
+                }
+                Format[] formats = new Format[adaptationSet.representations.size()];
+                for (int i = 0; i < formats.length; i++) {
+                    formats[i] = adaptationSet.representations.get(i).format;
+                }
+                int selected = selectFormat(formats);
+                if (selected != C.INDEX_UNSET) {
+                    preloadRepresentation(adaptationSet.type, adaptationSet.representations.get(selected), periodDurationUs);
+                }
+            }
+        }
+
+        private void preloadRepresentation(int trackType, Representation representation, long periodDurationUs) throws IOException {
+            checkCanceled();
+            String baseUrl = representation.baseUrls.get(0).url;
+            RangedUri initializationUri = representation.getInitializationUri();
+            if (initializationUri != null) {
+                cache(getRepresentationDataSpec(representation, baseUrl, initializationUri));
+            }
+            DashSegmentIndex index = representation.getIndex();
+            if (index == null) {
+                // Single-file representations keep their index in the media, reading it through the cache stores it too.
+                ChunkIndex chunkIndex = DashUtil.loadChunkIndex(_dataSource, trackType, representation);
+                if (chunkIndex == null) {
+                    return;
+                }
+                index = new DashWrappingSegmentIndex(chunkIndex, representation.presentationTimeOffsetUs);
+            }
+            long firstSegmentNum = index.getFirstSegmentNum();
+            long segmentCount = index.getSegmentCount(periodDurationUs);
+            long lastSegmentNum = segmentCount == DashSegmentIndex.INDEX_UNBOUNDED ? Long.MAX_VALUE : firstSegmentNum + segmentCount;
+            long firstTimeUs = index.getTimeUs(firstSegmentNum);
+            for (long segmentNum = firstSegmentNum; segmentNum < lastSegmentNum; segmentNum++) {
+                if (index.getTimeUs(segmentNum) - firstTimeUs >= _durationUs || _bytesCached >= _maxBytes) {
+                    break;
+                }
+                cache(getRepresentationDataSpec(representation, baseUrl, index.getSegmentUrl(segmentNum)));
+            }
+        }
+
+        // Built like the player builds its chunk requests, so both end up under the same cache key.
+        private DataSpec getRepresentationDataSpec(Representation representation, String baseUrl, RangedUri rangedUri) {
+            return DashUtil.buildDataSpec(representation, baseUrl, rangedUri, 0, Collections.emptyMap());
+        }
+
+        private void preloadSmoothStreaming(Uri uri) throws IOException {
+            SsManifest manifest = ParsingLoadable.load(_manifestDataSource, new SsManifestParser(), new DataSpec(uri), C.DATA_TYPE_MANIFEST);
+            if (manifest.isLive) {
+                return;
+            }
+            Set<Integer> trackTypes = new HashSet<>();
+            for (SsManifest.StreamElement streamElement : manifest.streamElements) {
+                boolean isAudioOrVideo = streamElement.type == C.TRACK_TYPE_VIDEO || streamElement.type == C.TRACK_TYPE_AUDIO;
+                if (!isAudioOrVideo || streamElement.chunkCount == 0 || !trackTypes.add(streamElement.type)) {
+                    continue;
+                }
+                int track = selectFormat(streamElement.formats);
+                if (track == C.INDEX_UNSET) {
+                    continue;
+                }
+                long firstTimeUs = streamElement.getStartTimeUs(0);
+                for (int chunkIndex = 0; chunkIndex < streamElement.chunkCount; chunkIndex++) {
+                    if (streamElement.getStartTimeUs(chunkIndex) - firstTimeUs >= _durationUs || _bytesCached >= _maxBytes) {
+                        break;
+                    }
+                    cache(new DataSpec(streamElement.buildRequestUri(track, chunkIndex)));
+                }
+            }
+        }
+
+        // The highest bitrate within the share of the estimate AdaptiveTrackSelection starts from, or the lowest one.
+        private int selectFormat(Format[] formats) {
+            long availableBitrate = (long) (MediaPlayerBandwidthMeter.get().getBitrateEstimate() * BANDWIDTH_FRACTION);
+            int selected = C.INDEX_UNSET;
+            int lowest = C.INDEX_UNSET;
+            for (int i = 0; i < formats.length; i++) {
+                int bitrate = formats[i].bitrate;
+                if (lowest == C.INDEX_UNSET || bitrate < formats[lowest].bitrate) {
+                    lowest = i;
+                }
+                if (bitrate <= availableBitrate && (selected == C.INDEX_UNSET || bitrate > formats[selected].bitrate)) {
+                    selected = i;
+                }
+            }
+            return selected != C.INDEX_UNSET ? selected : lowest;
+        }
+
+        // Progressive files have no segment boundaries and nothing in the URL tells their bitrate, so the first
+        // seconds can only be sized from the bitrate given with the preload. Without it only maxBytes limits the preload.
+        private long getProgressiveLength() {
+            if (_bitrate == C.LENGTH_UNSET) {
+                return _maxBytes;
+            }
+            long estimatedBytes = _bitrate * Util.usToMs(_durationUs) / 8000;
+            return Math.max(1, Math.min(estimatedBytes, _maxBytes));
+        }
+
+        private void cache(DataSpec dataSpec) throws IOException {
+            checkCanceled();
+            _cacheWriter = new CacheWriter(
+                _dataSource,
+                dataSpec,
+                null,
+                (requestLength, bytesCached, newBytesCached) -> _bytesCached += newBytesCached
+            );
+            checkCanceled();
+            _cacheWriter.cache();
+        }
+
+        private void checkCanceled() throws InterruptedIOException {
+            if (_canceled) {
+                throw new InterruptedIOException("Preload cancelled");
+            }
+        }
+
+        private void finish(Exception error) {
+            if (_finished.compareAndSet(false, true)) {
+                _onFinished.finished(_bytesCached, error);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package dev.eduardoroth.mediaplayer.player;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.media3.common.util.Clock;
+import androidx.media3.common.util.HandlerWrapper;
+import androidx.media3.common.util.UnstableApi;
+import dev.eduardoroth.mediaplayer.state.MediaPlayerStatsCollector;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The system clock, except that it adds up how long the player spends handling messages on its playback thread.
+// That thread may be shared with other players, so the time is measured per player instead of per thread.
+@OptIn(markerClass = UnstableApi.class)
+public class MediaPlayerWorkClock implements Clock, MediaPlayerStatsCollector.PlaybackWork {
+
+    private final AtomicLong _workTimeNs = new AtomicLong();
+
+    @Override
+    public long getWorkTimeMs() {
+        return _workTimeNs.get() / 1000000;
+    }
+
+    void reset() {
+        _workTimeNs.set(0);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return Clock.DEFAULT.currentTimeMillis();
+    }
+
+    @Override
+    public long elapsedRealtime() {
+        return Clock.DEFAULT.elapsedRealtime();
+    }
+
+    @Override
+    public long nanoTime() {
+        return Clock.DEFAULT.nanoTime();
+    }
+
+    @Override
+    public long uptimeMillis() {
+        return Clock.DEFAULT.uptimeMillis();
+    }
+
+    @NonNull
+    @Override
+    public HandlerWrapper createHandler(@NonNull Looper looper, @Nullable Handler.Callback callback) {
+        // Only the internal player handler runs off the application looper with a callback.
+        if (callback == null || looper == Looper.getMainLooper()) {
+            return Clock.DEFAULT.createHandler(looper, callback);
+        }
+        return Clock.DEFAULT.createHandler(looper, message -> {
+            long start = System.nanoTime();
+            try {
+                return callback.handleMessage(message);
+            } finally {
+                _workTimeNs.addAndGet(System.nanoTime() - start);
+            }
+        });
+    }
+
+    @Override
+    public void onThreadBlocked() {
+        Clock.DEFAULT.onThreadBlocked();
+    }
+}
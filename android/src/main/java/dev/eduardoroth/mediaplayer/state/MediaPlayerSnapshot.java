@@ -0,0 +1,57 @@
+package dev.eduardoroth.mediaplayer.state;
+
+import android.os.SystemClock;
+import androidx.media3.common.C;
+import androidx.media3.common.MediaItem;
+import androidx.media3.common.Player;
+
+// Immutable copy of what the query methods need, published by the player on every event so reads never touch the session.
+public record MediaPlayerSnapshot(
+    String playerId,
+    String url,
+    String playbackState,
+    boolean isPlaying,
+    long positionMs,
+    long durationMs,
+    float volume,
+    float rate,
+    int currentIndex,
+    int mediaItemCount,
+    long publishedAtMs
+) {
+    public static MediaPlayerSnapshot of(String playerId, Player player) {
+        MediaItem currentMediaItem = player.getCurrentMediaItem();
+        long duration = player.getDuration();
+        return new MediaPlayerSnapshot(
+            playerId,
+            currentMediaItem != null ? currentMediaItem.mediaId : null,
+            getPlaybackStateName(player.getPlaybackState()),
+            player.isPlaying(),
+            player.getCurrentPosition(),
+            duration == C.TIME_UNSET ? 0 : duration,
+            player.getVolume(),
+            player.getPlaybackParameters().speed,
+            player.getCurrentMediaItemIndex(),
+            player.getMediaItemCount(),
+            SystemClock.elapsedRealtime()
+        );
+    }
+
+    // The position only moves while playing, so it is extrapolated from the last event instead of published continuously.
+    public long currentPositionMs() {
+        if (!isPlaying) {
+            return positionMs;
+        }
+        long position = positionMs + (long) ((SystemClock.elapsedRealtime() - publishedAtMs) * rate);
+        return durationMs > 0 ? Math.min(position, durationMs) : position;
+    }
+
+    private static String getPlaybackStateName(int playbackState) {
+        return switch (playbackState) {
+            case Player.STATE_BUFFERING -> "buffering";
+            case Player.STATE_READY -> "ready";
+            case Player.STATE_ENDED -> "ended";
+            default -> "idle";
+        };
+    }
+}
@@ -3,6 +3,7 @@ package dev.eduardoroth.mediaplayer.state;
 import android.graphics.Rect;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.ViewModel;
+import androidx.media3.common.Player;
 import androidx.media3.session.MediaController;
 import dev.eduardoroth.mediaplayer.models.AndroidOptions;
 import dev.eduardoroth.mediaplayer.models.ExtraOptions;
@@ -24,6 +25,7 @@ public class MediaPlayerState extends ViewModel {
     public final MediaPlayerStateProperty<UI_STATE> fullscreenState;
     public final MediaPlayerStateProperty<UI_STATE> landscapeState;
     public final MediaPlayerStateProperty<UI_STATE> castingState;
+    public final MediaPlayerStateProperty<UI_STATE> hiddenState;
 
     public final MediaPlayerStateProperty<Rect> sourceRectHint;
     public final MediaPlayerStateProperty<String> currentMediaItemId;
@@ -31,6 +33,7 @@ public class MediaPlayerState extends ViewModel {
     public final MediaPlayerStateProperty<Long> getCurrentTime;
     public final MediaPlayerStateProperty<Long> getDuration;
 
+    public final MediaPlayerStateProperty<Player> player;
     public final MediaPlayerStateProperty<MediaController> mediaController;
     public final MediaPlayerStateProperty<PlacementOptions> placementOptions;
     public final MediaPlayerStateProperty<AndroidOptions> androidOptions;
@@ -44,6 +47,7 @@ public class MediaPlayerState extends ViewModel {
         fullscreenState = new MediaPlayerStateProperty<>(owner, UI_STATE.INACTIVE);
         landscapeState = new MediaPlayerStateProperty<>(owner, UI_STATE.INACTIVE);
         castingState = new MediaPlayerStateProperty<>(owner, UI_STATE.INACTIVE);
+        hiddenState = new MediaPlayerStateProperty<>(owner, UI_STATE.INACTIVE);
 
         sourceRectHint = new MediaPlayerStateProperty<>(owner);
         currentMediaItemId = new MediaPlayerStateProperty<>(owner);
@@ -51,6 +55,7 @@ public class MediaPlayerState extends ViewModel {
         getCurrentTime = new MediaPlayerStateProperty<>(owner, 0L);
         getDuration = new MediaPlayerStateProperty<>(owner, 0L);
 
+        player = new MediaPlayerStateProperty<>(owner);
         mediaController = new MediaPlayerStateProperty<>(owner, null, true);
         placementOptions = new MediaPlayerStateProperty<>(owner, null, true);
         androidOptions = new MediaPlayerStateProperty<>(owner, null, true);
@@ -53,4 +53,13 @@ public class MediaPlayerStateProperty<T> {
     public void observe(@NonNull Observer<? super T> observer) {
         _property.observe(_owner, observer);
     }
+
+    // Views must observe with their own lifecycle, the state outlives them and would keep them reachable.
+    public void observe(@NonNull LifecycleOwner owner, @NonNull Observer<? super T> observer) {
+        _property.observe(owner, observer);
+    }
+
+    public void removeObserver(@NonNull Observer<? super T> observer) {
+        _property.removeObserver(observer);
+    }
 }
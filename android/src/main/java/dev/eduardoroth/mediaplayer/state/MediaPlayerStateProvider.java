@@ -2,30 +2,60 @@ package dev.eduardoroth.mediaplayer.state;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.LifecycleOwner;
-import androidx.media3.common.util.UnstableApi;
-import java.util.HashMap;
+import dev.eduardoroth.mediaplayer.core.PlayerRegistry;
 
 public class MediaPlayerStateProvider {
 
     private static final MediaPlayerStateProvider _provider = new MediaPlayerStateProvider();
-    private final HashMap<String, MediaPlayerState> _instances = new HashMap<>();
+    private final PlayerRegistry<MediaPlayerState> _instances = new PlayerRegistry<>("State");
+    private final PlayerRegistry<MediaPlayerSnapshot> _snapshots = new PlayerRegistry<>("Snapshot");
+    private final PlayerRegistry<MediaPlayerStatsCollector> _statsCollectors = new PlayerRegistry<>("Stats");
 
     public static MediaPlayerState getState(String playerId) {
-        if (!_provider._instances.containsKey(playerId)) {
-            throw new Error("State not found for playerId " + playerId);
-        }
         return _provider._instances.get(playerId);
     }
 
     public static MediaPlayerState createState(String playerId, @NonNull LifecycleOwner owner) {
-        if (!_provider._instances.containsKey(playerId)) {
-            MediaPlayerState playerState = new MediaPlayerState(owner);
-            _provider._instances.put(playerId, playerState);
-        }
-        return MediaPlayerStateProvider.getState(playerId);
+        return _provider._instances.getOrCreate(playerId, id -> new MediaPlayerState(owner));
+    }
+
+    public static boolean hasState(String playerId) {
+        return _provider._instances.contains(playerId);
+    }
+
+    // False when the player was removed, even if a new one has been created with the same id since.
+    public static boolean isCurrentState(String playerId, MediaPlayerState state) {
+        return _provider._instances.contains(playerId) && _provider._instances.get(playerId) == state;
     }
 
     public static void clearState(String playerId) {
         _provider._instances.remove(playerId);
+        _provider._snapshots.remove(playerId);
+        _provider._statsCollectors.remove(playerId);
+    }
+
+    // Snapshots are published from the main thread and can be read from any thread.
+    public static MediaPlayerSnapshot getSnapshot(String playerId) {
+        return _provider._snapshots.get(playerId);
+    }
+
+    public static void publishSnapshot(MediaPlayerSnapshot snapshot) {
+        _provider._snapshots.put(snapshot.playerId(), snapshot);
+    }
+
+    public static void clearSnapshot(String playerId) {
+        _provider._snapshots.remove(playerId);
+    }
+
+    public static MediaPlayerStats getStats(String playerId) {
+        return _provider._statsCollectors.get(playerId).getStats();
+    }
+
+    public static void setStatsCollector(String playerId, MediaPlayerStatsCollector statsCollector) {
+        _provider._statsCollectors.put(playerId, statsCollector);
+    }
+
+    public static void clearStatsCollector(String playerId) {
+        _provider._statsCollectors.remove(playerId);
     }
 }
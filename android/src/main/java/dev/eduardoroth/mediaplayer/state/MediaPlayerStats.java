@@ -0,0 +1,47 @@
+package dev.eduardoroth.mediaplayer.state;
+
+import androidx.media3.common.C;
+import com.getcapacitor.JSObject;
+
+// Immutable copy of the aggregates kept by the collector, taken when stats are requested or emitted.
+public record MediaPlayerStats(
+    String playerId,
+    long startupTimeMs,
+    long timeToFirstFrameMs,
+    long playTimeMs,
+    int rebufferCount,
+    long rebufferDurationMs,
+    long droppedFrames,
+    int bitrateSwitches,
+    int videoBitrate,
+    int videoWidth,
+    int videoHeight,
+    long bandwidthEstimate,
+    int errorCount,
+    long playbackWorkMs
+) {
+    public double rebufferRatio() {
+        long watchedMs = playTimeMs + rebufferDurationMs;
+        return watchedMs == 0 ? 0 : (double) rebufferDurationMs / watchedMs;
+    }
+
+    public JSObject toJSObject() {
+        JSObject value = new JSObject();
+        value.put("playerId", playerId);
+        value.put("startupTime", startupTimeMs == C.TIME_UNSET ? -1 : startupTimeMs);
+        value.put("timeToFirstFrame", timeToFirstFrameMs == C.TIME_UNSET ? -1 : timeToFirstFrameMs);
+        value.put("playTime", playTimeMs);
+        value.put("rebufferCount", rebufferCount);
+        value.put("rebufferDuration", rebufferDurationMs);
+        value.put("rebufferRatio", rebufferRatio());
+        value.put("droppedFrames", droppedFrames);
+        value.put("bitrateSwitches", bitrateSwitches);
+        value.put("videoBitrate", videoBitrate);
+        value.put("videoWidth", videoWidth);
+        value.put("videoHeight", videoHeight);
+        value.put("bandwidthEstimate", bandwidthEstimate);
+        value.put("errorCount", errorCount);
+        value.put("playbackWorkTime", playbackWorkMs);
+        return value;
+    }
+}
@@ -0,0 +1,172 @@
+package dev.eduardoroth.mediaplayer.state;
+
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.media3.common.C;
+import androidx.media3.common.Format;
+import androidx.media3.common.PlaybackException;
+import androidx.media3.common.Player;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.DecoderReuseEvaluation;
+import androidx.media3.exoplayer.analytics.AnalyticsListener;
+
+// Rolling QoE aggregates of one player. Events arrive on the main thread and only update primitives,
+// reads can come from any thread so both sides share the same lock.
+@OptIn(markerClass = UnstableApi.class)
+public class MediaPlayerStatsCollector implements AnalyticsListener {
+
+    public interface PlaybackWork {
+        long getWorkTimeMs();
+    }
+
+    private final String _playerId;
+    private final PlaybackWork _playbackWork;
+    // The collector is created right before the player is prepared.
+    private final long _preparedAtMs = SystemClock.elapsedRealtime();
+
+    private long _playRequestedAtMs = C.TIME_UNSET;
+    private boolean _playWhenReady = false;
+    private long _startupTimeMs = C.TIME_UNSET;
+    private long _timeToFirstFrameMs = C.TIME_UNSET;
+    private long _playingSinceMs = C.TIME_UNSET;
+    private long _playTimeMs = 0;
+    private boolean _isSeeking = false;
+    private long _rebufferingSinceMs = C.TIME_UNSET;
+    private int _rebufferCount = 0;
+    private long _rebufferDurationMs = 0;
+    private long _droppedFrames = 0;
+    private int _bitrateSwitches = 0;
+    private int _videoBitrate = Format.NO_VALUE;
+    private int _videoWidth = Format.NO_VALUE;
+    private int _videoHeight = Format.NO_VALUE;
+    private long _bandwidthEstimate = 0;
+    private int _errorCount = 0;
+
+    public MediaPlayerStatsCollector(String playerId, @Nullable PlaybackWork playbackWork) {
+        _playerId = playerId;
+        _playbackWork = playbackWork;
+    }
+
+    public synchronized MediaPlayerStats getStats() {
+        long now = SystemClock.elapsedRealtime();
+        return new MediaPlayerStats(
+            _playerId,
+            _startupTimeMs,
+            _timeToFirstFrameMs,
+            _playTimeMs + (_playingSinceMs == C.TIME_UNSET ? 0 : now - _playingSinceMs),
+            _rebufferCount,
+            _rebufferDurationMs + (_rebufferingSinceMs == C.TIME_UNSET ? 0 : now - _rebufferingSinceMs),
+            _droppedFrames,
+            _bitrateSwitches,
+            _videoBitrate,
+            _videoWidth,
+            _videoHeight,
+            _bandwidthEstimate,
+            _errorCount,
+            _playbackWork != null ? _playbackWork.getWorkTimeMs() : 0
+        );
+    }
+
+    // Startup is measured from the first play request, the time a paused player waits for the user isn't part of it.
+    @Override
+    public synchronized void onPlayWhenReadyChanged(@NonNull EventTime eventTime, boolean playWhenReady, int reason) {
+        _playWhenReady = playWhenReady;
+        if (playWhenReady && _playRequestedAtMs == C.TIME_UNSET) {
+            _playRequestedAtMs = eventTime.realtimeMs;
+        }
+        if (!playWhenReady) {
+            endRebuffering(eventTime);
+        }
+    }
+
+    @Override
+    public synchronized void onIsPlayingChanged(@NonNull EventTime eventTime, boolean isPlaying) {
+        if (isPlaying) {
+            if (_startupTimeMs == C.TIME_UNSET && _playRequestedAtMs != C.TIME_UNSET) {
+                _startupTimeMs = eventTime.realtimeMs - _playRequestedAtMs;
+            }
+            _playingSinceMs = eventTime.realtimeMs;
+        } else if (_playingSinceMs != C.TIME_UNSET) {
+            _playTimeMs += eventTime.realtimeMs - _playingSinceMs;
+            _playingSinceMs = C.TIME_UNSET;
+        }
+    }
+
+    // The first frame is rendered while paused as well, so it is measured from prepare.
+    @Override
+    public synchronized void onRenderedFirstFrame(@NonNull EventTime eventTime, @NonNull Object output, long renderTimeMs) {
+        if (_timeToFirstFrameMs == C.TIME_UNSET) {
+            _timeToFirstFrameMs = eventTime.realtimeMs - _preparedAtMs;
+        }
+    }
+
+    @Override
+    public synchronized void onPositionDiscontinuity(
+        @NonNull EventTime eventTime,
+        @NonNull Player.PositionInfo oldPosition,
+        @NonNull Player.PositionInfo newPosition,
+        int reason
+    ) {
+        if (reason == Player.DISCONTINUITY_REASON_SEEK) {
+            _isSeeking = true;
+        }
+    }
+
+    @Override
+    public synchronized void onPlaybackStateChanged(@NonNull EventTime eventTime, int state) {
+        // Buffering caused by a seek, before the first start or while paused is expected, only stalls during playback
+        // count as rebuffers.
+        if (state == Player.STATE_BUFFERING) {
+            if (_playWhenReady && _startupTimeMs != C.TIME_UNSET && !_isSeeking && _rebufferingSinceMs == C.TIME_UNSET) {
+                _rebufferingSinceMs = eventTime.realtimeMs;
+                _rebufferCount++;
+            }
+            return;
+        }
+        endRebuffering(eventTime);
+        _isSeeking = false;
+    }
+
+    private void endRebuffering(EventTime eventTime) {
+        if (_rebufferingSinceMs != C.TIME_UNSET) {
+            _rebufferDurationMs += eventTime.realtimeMs - _rebufferingSinceMs;
+            _rebufferingSinceMs = C.TIME_UNSET;
+        }
+    }
+
+    @Override
+    public synchronized void onDroppedVideoFrames(@NonNull EventTime eventTime, int droppedFrames, long elapsedMs) {
+        _droppedFrames += droppedFrames;
+    }
+
+    @Override
+    public synchronized void onVideoInputFormatChanged(
+        @NonNull EventTime eventTime,
+        @NonNull Format format,
+        @Nullable DecoderReuseEvaluation decoderReuseEvaluation
+    ) {
+        if (_videoBitrate != Format.NO_VALUE && format.bitrate != _videoBitrate) {
+            _bitrateSwitches++;
+        }
+        _videoBitrate = format.bitrate;
+        _videoWidth = format.width;
+        _videoHeight = format.height;
+    }
+
+    @Override
+    public synchronized void onBandwidthEstimate(
+        @NonNull EventTime eventTime,
+        int totalLoadTimeMs,
+        long totalBytesLoaded,
+        long bitrateEstimate
+    ) {
+        _bandwidthEstimate = bitrateEstimate;
+    }
+
+    @Override
+    public synchronized void onPlayerError(@NonNull EventTime eventTime, @NonNull PlaybackException error) {
+        _errorCount++;
+    }
+}
@@ -0,0 +1,63 @@
+package dev.eduardoroth.mediaplayer;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.management.ObjectName;
+
+// Live object counts per class from the JVM's own class histogram, used to point at whatever grew between two points.
+public class HeapHistogram {
+
+    public record Entry(String className, long instances, long bytes) {}
+
+    private final HashMap<String, Entry> _entries;
+
+    private HeapHistogram(HashMap<String, Entry> entries) {
+        _entries = entries;
+    }
+
+    // The histogram command runs a full collection first, so only reachable objects are counted.
+    public static HeapHistogram capture() throws Exception {
+        String histogram = (String) ManagementFactory.getPlatformMBeanServer()
+            .invoke(
+                new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                "gcClassHistogram",
+                new Object[] { null },
+                new String[] { String[].class.getName() }
+            );
+        HashMap<String, Entry> entries = new HashMap<>();
+        for (String line : histogram.split("\n")) {
+            String[] columns = line.trim().split("\\s+");
+            if (columns.length < 4 || !columns[0].endsWith(":")) {
+                continue;
+            }
+            entries.put(columns[3], new Entry(columns[3], Long.parseLong(columns[1]), Long.parseLong(columns[2])));
+        }
+        return new HeapHistogram(entries);
+    }
+
+    public List<Entry> growthSince(HeapHistogram baseline, int limit) {
+        List<Entry> growth = new ArrayList<>();
+        for (Map.Entry<String, Entry> current : _entries.entrySet()) {
+            Entry before = baseline._entries.get(current.getKey());
+            long instances = current.getValue().instances() - (before != null ? before.instances() : 0);
+            long bytes = current.getValue().bytes() - (before != null ? before.bytes() : 0);
+            if (instances > 0) {
+                growth.add(new Entry(current.getKey(), instances, bytes));
+            }
+        }
+        growth.sort((first, second) -> Long.compare(second.bytes(), first.bytes()));
+        return growth.subList(0, Math.min(limit, growth.size()));
+    }
+
+    public static String format(List<Entry> entries) {
+        StringBuilder builder = new StringBuilder(String.format(Locale.US, "%12s %14s  %s%n", "+instances", "+bytes", "class"));
+        for (Entry entry : entries) {
+            builder.append(String.format(Locale.US, "%12d %14d  %s%n", entry.instances(), entry.bytes(), entry.className()));
+        }
+        return builder.toString();
+    }
+}
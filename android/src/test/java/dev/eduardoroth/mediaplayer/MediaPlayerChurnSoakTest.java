@@ -0,0 +1,154 @@
+package dev.eduardoroth.mediaplayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import androidx.lifecycle.LifecycleRegistry;
+import dev.eduardoroth.mediaplayer.MediaPlayerTestHarness.PendingResult;
+import java.io.File;
+import java.io.FileWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+// Creates, plays and removes one player thousands of times and checks that nothing it touched keeps growing.
+// Set -DmediaPlayer.soakCycles to run longer, a heap histogram diff is written next to the scale reports on failure.
+@RunWith(RobolectricTestRunner.class)
+public class MediaPlayerChurnSoakTest {
+
+    private static final int WARM_UP_CYCLES = 50;
+    private static final long TIMEOUT_MS = 30000;
+    private static final long MAX_HEAP_GROWTH_BYTES = 8L * 1024 * 1024;
+    private static final int MAX_THREAD_GROWTH = 2;
+
+    private record Footprint(long heapBytes, int threads, int pictureInPictureListeners, int activityObservers, int serviceObservers, int sessions) {}
+
+    private final MediaPlayerTestHarness _harness = new MediaPlayerTestHarness();
+
+    @Before
+    public void setUp() throws Exception {
+        _harness.setUp();
+    }
+
+    @After
+    public void tearDown() {
+        _harness.tearDown();
+    }
+
+    @Test
+    public void createPlayRemoveStaysFlat() throws Exception {
+        int cycles = Integer.getInteger("mediaPlayer.soakCycles", 2000);
+        for (int i = 0; i < WARM_UP_CYCLES; i++) {
+            runCycle(i);
+        }
+        Footprint baseline = measure();
+        HeapHistogram baselineHistogram = HeapHistogram.capture();
+
+        for (int i = WARM_UP_CYCLES; i < WARM_UP_CYCLES + cycles; i++) {
+            runCycle(i);
+        }
+        Footprint after = measure();
+
+        List<String> failures = new ArrayList<>();
+        if (after.heapBytes() - baseline.heapBytes() > MAX_HEAP_GROWTH_BYTES) {
+            failures.add("heap grew by " + (after.heapBytes() - baseline.heapBytes()) + " bytes");
+        }
+        if (after.threads() - baseline.threads() > MAX_THREAD_GROWTH) {
+            failures.add("threads grew from " + baseline.threads() + " to " + after.threads());
+        }
+        if (after.pictureInPictureListeners() != baseline.pictureInPictureListeners()) {
+            failures.add(
+                "picture in picture listeners went from " + baseline.pictureInPictureListeners() + " to " + after.pictureInPictureListeners()
+            );
+        }
+        if (after.activityObservers() != baseline.activityObservers()) {
+            failures.add("activity lifecycle observers went from " + baseline.activityObservers() + " to " + after.activityObservers());
+        }
+        if (after.serviceObservers() != baseline.serviceObservers()) {
+            failures.add("service lifecycle observers went from " + baseline.serviceObservers() + " to " + after.serviceObservers());
+        }
+        if (after.sessions() != baseline.sessions()) {
+            failures.add("sessions went from " + baseline.sessions() + " to " + after.sessions());
+        }
+        if (!failures.isEmpty()) {
+            String histogram = HeapHistogram.format(HeapHistogram.capture().growthSince(baselineHistogram, 40));
+            File reportFile = new File(MediaPlayerTestHarness.getReportDir(), "soak-histogram.txt");
+            try (FileWriter writer = new FileWriter(reportFile)) {
+                writer.write(String.join("\n", failures) + "\n\n" + histogram);
+            }
+            fail(String.join(", ", failures) + " after " + cycles + " cycles\n" + histogram);
+        }
+    }
+
+    // remove releases its controller asynchronously, the create right after it must get a session of its own.
+    @Test
+    public void createRightAfterRemoveGetsANewSession() {
+        String playerId = "recreated";
+        for (int i = 0; i < WARM_UP_CYCLES; i++) {
+            int ready = _harness.countEvents("MediaPlayer:Ready");
+            PendingResult create = _harness.create(playerId);
+            assertTrue(_harness.runMainUntil(() -> _harness.countEvents("MediaPlayer:Ready") > ready, TIMEOUT_MS));
+            assertTrue(_harness.runMainUntil(create::isDone, TIMEOUT_MS));
+            assertTrue(create.get().toString(), create.isSuccessful());
+            assertTrue(_harness.call(MediaPlayerPlugin::remove, "remove", MediaPlayerTestHarness.playerOptions(playerId)).isSuccessful());
+        }
+        PendingResult create = _harness.create(playerId);
+        assertTrue(_harness.runMainUntil(create::isDone, TIMEOUT_MS));
+        assertTrue(create.get().toString(), create.isSuccessful());
+
+        // Every removed session is released, only the last create keeps one.
+        assertTrue(_harness.runMainUntil(() -> _harness.getService().getSessions().size() == 1, TIMEOUT_MS));
+        int playing = _harness.countEvents("MediaPlayer:Play");
+        assertTrue(_harness.call(MediaPlayerPlugin::play, "play", MediaPlayerTestHarness.playerOptions(playerId)).isSuccessful());
+        assertTrue(_harness.runMainUntil(() -> _harness.countEvents("MediaPlayer:Play") > playing, TIMEOUT_MS));
+        assertEquals(1, _harness.getActivity().getSupportFragmentManager().getFragments().size());
+        assertEquals(0, MediaPlayerSessionHandoff.size());
+    }
+
+    private void runCycle(int cycle) {
+        String playerId = "soak-" + cycle;
+        int ready = _harness.countEvents("MediaPlayer:Ready");
+        int playing = _harness.countEvents("MediaPlayer:Play");
+        int removed = _harness.countEvents("MediaPlayer:Removed");
+
+        PendingResult create = _harness.create(playerId);
+        assertTrue("Cycle " + cycle + " never got ready", _harness.runMainUntil(() -> _harness.countEvents("MediaPlayer:Ready") > ready, TIMEOUT_MS));
+        assertTrue(_harness.runMainUntil(create::isDone, TIMEOUT_MS));
+        assertTrue(create.get().toString(), create.isSuccessful());
+        assertTrue(_harness.call(MediaPlayerPlugin::play, "play", MediaPlayerTestHarness.playerOptions(playerId)).isSuccessful());
+        assertTrue(_harness.runMainUntil(() -> _harness.countEvents("MediaPlayer:Play") > playing, TIMEOUT_MS));
+        assertTrue(_harness.call(MediaPlayerPlugin::remove, "remove", MediaPlayerTestHarness.playerOptions(playerId)).isSuccessful());
+        assertTrue(_harness.runMainUntil(() -> _harness.countEvents("MediaPlayer:Removed") > removed, TIMEOUT_MS));
+        // Only the counters matter from here, keeping every event would look like a leak.
+        _harness.getEvents().clear();
+    }
+
+    private Footprint measure() throws Exception {
+        _harness.runMainUntilIdle();
+        assertEquals(0, _harness.getActivity().getSupportFragmentManager().getFragments().size());
+        assertEquals(0, MediaPlayerSessionHandoff.size());
+        return new Footprint(
+            MediaPlayerTestHarness.usedHeapAfterGc(),
+            ManagementFactory.getThreadMXBean().getThreadCount(),
+            countPictureInPictureListeners(),
+            ((LifecycleRegistry) _harness.getActivity().getLifecycle()).getObserverCount(),
+            ((LifecycleRegistry) _harness.getService().getLifecycle()).getObserverCount(),
+            _harness.getService().getSessions().size()
+        );
+    }
+
+    // ComponentActivity keeps its listeners private, there is no other way to count them.
+    private int countPictureInPictureListeners() throws Exception {
+        Field listeners = androidx.activity.ComponentActivity.class.getDeclaredField("onPictureInPictureModeChangedListeners");
+        listeners.setAccessible(true);
+        return ((Collection<?>) listeners.get(_harness.getActivity())).size();
+    }
+}
@@ -0,0 +1,149 @@
+package dev.eduardoroth.mediaplayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSObject;
+import dev.eduardoroth.mediaplayer.MediaPlayerTestHarness.PendingResult;
+import dev.eduardoroth.mediaplayer.state.MediaPlayerStateProvider;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+
+// How create, play, seek and remove scale with the number of embedded players. Results are written as JSON
+// to the report directory so runs can be compared, the assertions only check that every player got there.
+@RunWith(ParameterizedRobolectricTestRunner.class)
+public class MediaPlayerScaleTest {
+
+    private static final long TIMEOUT_MS = 60000;
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "players={0}")
+    public static List<Object[]> parameters() {
+        return Arrays.asList(new Object[][] { { 1 }, { 10 }, { 50 } });
+    }
+
+    private final int _players;
+    private final MediaPlayerTestHarness _harness = new MediaPlayerTestHarness();
+
+    public MediaPlayerScaleTest(int players) {
+        _players = players;
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        _harness.setUp();
+    }
+
+    @After
+    public void tearDown() {
+        _harness.tearDown();
+    }
+
+    @Test
+    public void createPlaySeekRemove() throws Exception {
+        long heapBefore = MediaPlayerTestHarness.usedHeapAfterGc();
+        long tasksBefore = _harness.getMainThreadTasks();
+
+        HashMap<String, Long> createdAt = new HashMap<>();
+        List<PendingResult> creates = new ArrayList<>();
+        for (int i = 0; i < _players; i++) {
+            String playerId = "player-" + i;
+            createdAt.put(playerId, System.nanoTime());
+            creates.add(_harness.create(playerId));
+        }
+        assertTrue("Players never got ready", _harness.runMainUntil(() -> _harness.countEvents("MediaPlayer:Ready") >= _players, TIMEOUT_MS));
+        assertTrue("Create calls never resolved", _harness.runMainUntil(() -> allDone(creates), TIMEOUT_MS));
+        for (PendingResult create : creates) {
+            assertTrue(create.get().toString(), create.isSuccessful());
+        }
+        long createTasks = _harness.getMainThreadTasks() - tasksBefore;
+
+        List<Double> timesToReadyMs = new ArrayList<>();
+        for (String playerId : createdAt.keySet()) {
+            MediaPlayerTestHarness.Event ready = _harness.firstEvent("MediaPlayer:Ready", playerId);
+            timesToReadyMs.add((ready.atNanos() - createdAt.get(playerId)) / 1e6);
+        }
+        long retainedHeapPerPlayer = (MediaPlayerTestHarness.usedHeapAfterGc() - heapBefore) / _players;
+
+        int eventsBeforePlay = _harness.getEvents().size();
+        long tasksBeforePlay = _harness.getMainThreadTasks();
+        long playStartedAt = System.nanoTime();
+        for (int i = 0; i < _players; i++) {
+            assertTrue(_harness.call(MediaPlayerPlugin::play, "play", MediaPlayerTestHarness.playerOptions("player-" + i)).isSuccessful());
+        }
+        assertTrue(_harness.runMainUntil(() -> _harness.countEvents("MediaPlayer:Play") >= _players, TIMEOUT_MS));
+        for (int i = 0; i < _players; i++) {
+            JSObject seek = MediaPlayerTestHarness.playerOptions("player-" + i);
+            seek.put("time", 10.0);
+            assertTrue(_harness.call(MediaPlayerPlugin::setCurrentTime, "setCurrentTime", seek).isSuccessful());
+        }
+        assertTrue(_harness.runMainUntil(() -> _harness.countEvents("MediaPlayer:Seek") >= _players, TIMEOUT_MS));
+        double playSeconds = (System.nanoTime() - playStartedAt) / 1e9;
+        int playEvents = _harness.getEvents().size() - eventsBeforePlay;
+        long playTasks = _harness.getMainThreadTasks() - tasksBeforePlay;
+
+        for (int i = 0; i < _players; i++) {
+            assertTrue(_harness.call(MediaPlayerPlugin::remove, "remove", MediaPlayerTestHarness.playerOptions("player-" + i)).isSuccessful());
+        }
+        assertTrue(_harness.runMainUntil(() -> _harness.countEvents("MediaPlayer:Removed") >= _players, TIMEOUT_MS));
+        for (int i = 0; i < _players; i++) {
+            String playerId = "player-" + i;
+            assertTrue("State left behind for " + playerId, isCleared(playerId));
+        }
+
+        JSONObject report = new JSONObject();
+        report.put("players", _players);
+        report.put("timeToReadyP50Ms", percentile(timesToReadyMs, 0.5));
+        report.put("timeToReadyP95Ms", percentile(timesToReadyMs, 0.95));
+        report.put("timeToReadyMaxMs", percentile(timesToReadyMs, 1));
+        report.put("createMainThreadTasks", createTasks);
+        report.put("playMainThreadTasks", playTasks);
+        report.put("eventsPerSecond", playEvents / playSeconds);
+        report.put("retainedHeapPerPlayerBytes", retainedHeapPerPlayer);
+        writeReport(report);
+        assertEquals(_players, _harness.countEvents("MediaPlayer:Removed"));
+    }
+
+    private static boolean allDone(List<PendingResult> results) {
+        for (PendingResult result : results) {
+            if (!result.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCleared(String playerId) {
+        try {
+            MediaPlayerStateProvider.getState(playerId);
+            return false;
+        } catch (Error err) {
+            return true;
+        }
+    }
+
+    private static double percentile(List<Double> values, double percentile) {
+        List<Double> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private void writeReport(JSONObject report) throws Exception {
+        File reportFile = new File(MediaPlayerTestHarness.getReportDir(), "scale-" + _players + ".json");
+        try (FileWriter writer = new FileWriter(reportFile)) {
+            writer.write(report.toString(2));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package dev.eduardoroth.mediaplayer;
+
+import android.os.Bundle;
+import android.view.View;
+import android.widget.FrameLayout;
+import androidx.appcompat.app.AppCompatActivity;
+
+// Stands in for the Capacitor bridge activity, the plugin only needs the web view to have a parent to attach players to.
+public class MediaPlayerTestActivity extends AppCompatActivity {
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        setTheme(androidx.appcompat.R.style.Theme_AppCompat_NoActionBar);
+        super.onCreate(savedInstanceState);
+        FrameLayout root = new FrameLayout(this);
+        View webView = new View(this);
+        webView.setId(R.id.webview);
+        root.addView(webView);
+        setContentView(root);
+    }
+}
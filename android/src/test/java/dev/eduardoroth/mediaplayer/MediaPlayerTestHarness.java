@@ -0,0 +1,305 @@
+package dev.eduardoroth.mediaplayer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Application;
+import android.content.ComponentName;
+import android.content.Intent;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import androidx.annotation.OptIn;
+import androidx.media3.common.util.HandlerWrapper;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.Renderer;
+import androidx.media3.exoplayer.audio.AudioRendererEventListener;
+import androidx.media3.exoplayer.metadata.MetadataOutput;
+import androidx.media3.exoplayer.text.TextOutput;
+import androidx.media3.exoplayer.video.VideoRendererEventListener;
+import androidx.media3.session.MediaLibraryService;
+import androidx.media3.test.utils.FakeAudioRenderer;
+import androidx.media3.test.utils.FakeClock;
+import androidx.media3.test.utils.FakeVideoRenderer;
+import androidx.test.core.app.ApplicationProvider;
+import com.getcapacitor.Bridge;
+import com.getcapacitor.CapConfig;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.MessageHandler;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginConfig;
+import com.getcapacitor.PluginHandle;
+import com.getcapacitor.PluginResult;
+import dev.eduardoroth.mediaplayer.player.MediaPlayerPool;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import org.robolectric.Robolectric;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.android.controller.ServiceController;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.shadows.ShadowSystemClock;
+
+// Drives the plugin the way the bridge does: plugin methods on the main thread, the service bound in process,
+// players on a fake clock with fake renderers and a local file, so nothing depends on codecs or the network.
+@OptIn(markerClass = UnstableApi.class)
+public class MediaPlayerTestHarness {
+
+    public record Event(String name, String playerId, long atNanos) {}
+
+    public static class PendingResult {
+
+        private volatile JSObject _value;
+
+        public boolean isDone() {
+            return _value != null;
+        }
+
+        public JSObject get() {
+            return _value;
+        }
+
+        public boolean isSuccessful() {
+            return _value != null && _value.getBool("result") == Boolean.TRUE;
+        }
+    }
+
+    private class RecordingPlugin extends MediaPlayerPlugin {
+
+        @Override
+        protected void notifyListeners(String eventName, JSObject data) {
+            _events.add(new Event(eventName, data.getString("playerId"), System.nanoTime()));
+        }
+
+        // Every event type has a listener, so the plugin does the same work it does for a busy app.
+        @Override
+        protected boolean hasListeners(String eventName) {
+            return true;
+        }
+    }
+
+    private static final int SAMPLE_RATE = 8000;
+
+    private final List<Event> _events = new ArrayList<>();
+    private final ConcurrentHashMap<String, PendingResult> _pendingResults = new ConcurrentHashMap<>();
+    private FakeClock _clock;
+    private ActivityController<MediaPlayerTestActivity> _activityController;
+    private ServiceController<MediaPlayerService> _serviceController;
+    private RecordingPlugin _plugin;
+    private MessageHandler _messageHandler;
+    private File _mediaFile;
+    private long _mainThreadTasks = 0;
+    private int _callbackId = 0;
+
+    public void setUp() throws IOException {
+        _clock = new FakeClock(true);
+        MediaPlayerPool.setPlayerBuilderCustomizer(builder -> builder.setClock(_clock).setRenderersFactory(this::createRenderers));
+
+        Application application = ApplicationProvider.getApplicationContext();
+        _mediaFile = writeSilentWav(new File(application.getCacheDir(), "silence.wav"), 30);
+
+        _serviceController = Robolectric.buildService(MediaPlayerService.class).create();
+        shadowOf(application).setComponentNameAndServiceForBindService(
+            new ComponentName(application, MediaPlayerService.class),
+            _serviceController.get().onBind(new Intent(MediaLibraryService.SERVICE_INTERFACE))
+        );
+        _activityController = Robolectric.buildActivity(MediaPlayerTestActivity.class).setup();
+
+        PluginHandle pluginHandle = mock(PluginHandle.class);
+        when(pluginHandle.getId()).thenReturn("MediaPlayer");
+        CapConfig config = mock(CapConfig.class);
+        when(config.getPluginConfiguration(anyString())).thenReturn(mock(PluginConfig.class));
+        Bridge bridge = mock(Bridge.class);
+        when(bridge.getActivity()).thenReturn(_activityController.get());
+        when(bridge.getContext()).thenReturn(_activityController.get());
+        when(bridge.getConfig()).thenReturn(config);
+        _messageHandler = mock(MessageHandler.class);
+        doAnswer(invocation -> {
+            PluginCall pluginCall = invocation.getArgument(0);
+            PluginResult result = invocation.getArgument(1);
+            PendingResult pendingResult = _pendingResults.remove(pluginCall.getCallbackId());
+            if (pendingResult != null && result != null) {
+                pendingResult._value = new JSObject(result.toString());
+            }
+            return null;
+        })
+            .when(_messageHandler)
+            .sendResponseMessage(any(), any(), any());
+
+        _plugin = new RecordingPlugin();
+        _plugin.setBridge(bridge);
+        _plugin.setPluginHandle(pluginHandle);
+        _plugin.load();
+        runMainUntilIdle();
+    }
+
+    public void tearDown() {
+        call(MediaPlayerPlugin::removeAll, "removeAll", new JSObject());
+        runMainUntilIdle();
+        _activityController.pause().stop().destroy();
+        _serviceController.destroy();
+        MediaPlayerPool.clear();
+        MediaPlayerPool.setPlayerBuilderCustomizer(null);
+        runMainUntilIdle();
+    }
+
+    public PendingResult create(String playerId) {
+        JSObject placement = new JSObject();
+        placement.put("width", 320);
+        placement.put("height", 180);
+        JSObject data = new JSObject();
+        data.put("playerId", playerId);
+        data.put("url", "file://" + _mediaFile.getAbsolutePath());
+        data.put("placement", placement);
+        return call(MediaPlayerPlugin::create, "create", data);
+    }
+
+    public PendingResult call(BiConsumer<MediaPlayerPlugin, PluginCall> method, String methodName, JSObject data) {
+        PendingResult pendingResult = new PendingResult();
+        String callbackId = String.valueOf(++_callbackId);
+        _pendingResults.put(callbackId, pendingResult);
+        method.accept(_plugin, new PluginCall(_messageHandler, "MediaPlayer", callbackId, methodName, data));
+        return pendingResult;
+    }
+
+    public static JSObject playerOptions(String playerId) {
+        JSObject data = new JSObject();
+        data.put("playerId", playerId);
+        return data;
+    }
+
+    // Runs main looper tasks one at a time so they can be counted, advancing the system clock only when nothing is due.
+    public boolean runMainUntil(BooleanSupplier condition, long timeoutMs) {
+        ShadowLooper mainLooper = shadowOf(Looper.getMainLooper());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Duration next = mainLooper.getNextScheduledTaskTime();
+            if (next.isZero() || next.toMillis() > SystemClock.uptimeMillis()) {
+                // Give the playback and binder threads a chance to post before moving time forward.
+                sleep();
+                next = mainLooper.getNextScheduledTaskTime();
+                if (next.isZero()) {
+                    continue;
+                }
+                long delayMs = next.toMillis() - SystemClock.uptimeMillis();
+                if (delayMs > 0) {
+                    ShadowSystemClock.advanceBy(Duration.ofMillis(delayMs));
+                }
+            }
+            mainLooper.runOneTask();
+            _mainThreadTasks++;
+        }
+        return true;
+    }
+
+    public void runMainUntilIdle() {
+        ShadowLooper mainLooper = shadowOf(Looper.getMainLooper());
+        while (!mainLooper.isIdle()) {
+            mainLooper.runOneTask();
+            _mainThreadTasks++;
+        }
+    }
+
+    public MediaPlayerTestActivity getActivity() {
+        return _activityController.get();
+    }
+
+    public MediaPlayerService getService() {
+        return _serviceController.get();
+    }
+
+    public long getMainThreadTasks() {
+        return _mainThreadTasks;
+    }
+
+    public List<Event> getEvents() {
+        return _events;
+    }
+
+    public int countEvents(String eventName) {
+        int count = 0;
+        for (Event event : _events) {
+            if (event.name().equals(eventName)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public Event firstEvent(String eventName, String playerId) {
+        for (Event event : _events) {
+            if (event.name().equals(eventName) && playerId.equals(event.playerId())) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    public static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            sleep();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static File getReportDir() {
+        File reportDir = new File(System.getProperty("mediaPlayer.reportDir", "build/reports/media-player"));
+        reportDir.mkdirs();
+        return reportDir;
+    }
+
+    private Renderer[] createRenderers(
+        Handler eventHandler,
+        VideoRendererEventListener videoRendererEventListener,
+        AudioRendererEventListener audioRendererEventListener,
+        TextOutput textRendererOutput,
+        MetadataOutput metadataRendererOutput
+    ) {
+        HandlerWrapper handler = _clock.createHandler(eventHandler.getLooper(), null);
+        return new Renderer[] {
+            new FakeVideoRenderer(handler, videoRendererEventListener),
+            new FakeAudioRenderer(handler, audioRendererEventListener),
+        };
+    }
+
+    // Mono 16 bit PCM silence, small enough to write per run and parsed by the WAV extractor without a decoder.
+    private static File writeSilentWav(File file, int durationSeconds) throws IOException {
+        int dataSize = SAMPLE_RATE * 2 * durationSeconds;
+        ByteBuffer header = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+        header.put("RIFF".getBytes()).putInt(36 + dataSize).put("WAVE".getBytes());
+        header.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 1);
+        header.putInt(SAMPLE_RATE).putInt(SAMPLE_RATE * 2).putShort((short) 2).putShort((short) 16);
+        header.put("data".getBytes()).putInt(dataSize);
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(header.array());
+            output.write(new byte[dataSize]);
+        }
+        return file;
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
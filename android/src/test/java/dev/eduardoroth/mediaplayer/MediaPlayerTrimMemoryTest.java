@@ -0,0 +1,120 @@
+package dev.eduardoroth.mediaplayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.ComponentCallbacks2;
+import com.getcapacitor.JSObject;
+import dev.eduardoroth.mediaplayer.MediaPlayerTestHarness.Event;
+import dev.eduardoroth.mediaplayer.MediaPlayerTestHarness.PendingResult;
+import dev.eduardoroth.mediaplayer.player.MediaPlayerPool;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowSystemClock;
+
+// Fires every trim level at three paused players, created oldest first, and checks which of them are suspended.
+@RunWith(RobolectricTestRunner.class)
+public class MediaPlayerTrimMemoryTest {
+
+    private static final long TIMEOUT_MS = 30000;
+    private static final String SUSPENDED = "MediaPlayer:Suspended";
+    private static final String[] PLAYER_IDS = { "oldest", "middle", "newest" };
+
+    private final MediaPlayerTestHarness _harness = new MediaPlayerTestHarness();
+
+    @Before
+    public void setUp() throws Exception {
+        _harness.setUp();
+    }
+
+    @After
+    public void tearDown() {
+        _harness.tearDown();
+    }
+
+    @Test
+    public void uiHiddenAndRunningModerateSuspendNothing() {
+        assertEquals(Collections.emptyList(), trim(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN));
+        assertEquals(Collections.emptyList(), trim(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE));
+    }
+
+    @Test
+    public void runningLowAndBackgroundKeepTheMostRecentPlayer() {
+        assertEquals(Arrays.asList("oldest", "middle"), trim(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW));
+        assertEquals(Arrays.asList("oldest", "middle"), trim(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND));
+    }
+
+    @Test
+    public void criticalLevelsSuspendEveryInactivePlayer() {
+        List<String> all = Arrays.asList("oldest", "middle", "newest");
+        assertEquals(all, trim(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL));
+        assertEquals(all, trim(ComponentCallbacks2.TRIM_MEMORY_MODERATE));
+        assertEquals(all, trim(ComponentCallbacks2.TRIM_MEMORY_COMPLETE));
+    }
+
+    @Test
+    public void playingPlayersAreNeverSuspended() {
+        createPlayers("playing");
+        assertTrue(_harness.call(MediaPlayerPlugin::play, "play", MediaPlayerTestHarness.playerOptions("playing-oldest")).isSuccessful());
+        assertTrue(_harness.runMainUntil(() -> _harness.firstEvent("MediaPlayer:Play", "playing-oldest") != null, TIMEOUT_MS));
+        _harness.getEvents().clear();
+
+        _harness.getService().onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        _harness.runMainUntilIdle();
+        assertEquals(Arrays.asList("middle", "newest"), suspendedPlayers());
+    }
+
+    @Test
+    public void poolStaysEmptyUntilTheNextCreate() {
+        _harness.getService().onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        _harness.runMainUntilIdle();
+        assertEquals(0, MediaPlayerPool.getStats().idle());
+
+        createPlayers("rewarm");
+        _harness.runMainUntilIdle();
+        assertEquals(MediaPlayerPool.getStats().minIdle(), MediaPlayerPool.getStats().idle());
+    }
+
+    // Players suspended by the level, in the order they were suspended. Every level gets players of its own.
+    private List<String> trim(int level) {
+        createPlayers("level" + level);
+        _harness.getEvents().clear();
+        _harness.getService().onTrimMemory(level);
+        _harness.runMainUntilIdle();
+        List<String> suspended = suspendedPlayers();
+        _harness.call(MediaPlayerPlugin::removeAll, "removeAll", new JSObject());
+        assertTrue(_harness.runMainUntil(() -> _harness.countEvents("MediaPlayer:Removed") == PLAYER_IDS.length, TIMEOUT_MS));
+        _harness.getEvents().clear();
+        return suspended;
+    }
+
+    private void createPlayers(String prefix) {
+        for (String name : PLAYER_IDS) {
+            String playerId = prefix + "-" + name;
+            PendingResult create = _harness.create(playerId);
+            assertTrue(playerId + " never got ready", _harness.runMainUntil(() -> _harness.firstEvent("MediaPlayer:Ready", playerId) != null, TIMEOUT_MS));
+            assertTrue(_harness.runMainUntil(create::isDone, TIMEOUT_MS));
+            assertTrue(create.get().toString(), create.isSuccessful());
+            // Players created in the same millisecond would tie on recency.
+            ShadowSystemClock.advanceBy(Duration.ofMillis(10));
+        }
+    }
+
+    private List<String> suspendedPlayers() {
+        List<String> suspended = new ArrayList<>();
+        for (Event event : _harness.getEvents()) {
+            if (event.name().equals(SUSPENDED)) {
+                suspended.add(event.playerId().substring(event.playerId().indexOf('-') + 1));
+            }
+        }
+        return suspended;
+    }
+}
@@ -0,0 +1,77 @@
+package dev.eduardoroth.mediaplayer.core.benchmarks;
+
+import dev.eduardoroth.mediaplayer.core.NotificationQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Posting from player threads and draining from the main thread, with and without coalescing.
+@State(Scope.Group)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NotificationQueueBenchmark {
+
+    private static final String[] COALESCE_KEYS = new String[64];
+
+    static {
+        for (int i = 0; i < COALESCE_KEYS.length; i++) {
+            COALESCE_KEYS[i] = "MediaPlayer:TimeUpdated:player-" + i;
+        }
+    }
+
+    @Param({ "true", "false" })
+    public boolean coalesce;
+
+    @Param({ "256" })
+    public int capacity;
+
+    private NotificationQueue<Object> _queue;
+    private final Object _notification = new Object();
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        _queue = new NotificationQueue<>(capacity, coalesce);
+    }
+
+    @Benchmark
+    @Group("singleThread")
+    public Object offerThenPoll() {
+        _queue.offer(_notification, COALESCE_KEYS[0]);
+        return _queue.poll();
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public void producers(ProducerState producer) {
+        _queue.offer(_notification, COALESCE_KEYS[producer.next()]);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void drainer(Blackhole blackhole) {
+        blackhole.consume(_queue.poll());
+    }
+
+    @State(Scope.Thread)
+    public static class ProducerState {
+
+        private int _index = 0;
+
+        int next() {
+            _index = (_index + 1) & (COALESCE_KEYS.length - 1);
+            return _index;
+        }
+    }
+}
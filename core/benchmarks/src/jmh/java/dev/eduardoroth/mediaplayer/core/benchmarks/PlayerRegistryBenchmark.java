@@ -0,0 +1,60 @@
+package dev.eduardoroth.mediaplayer.core.benchmarks;
+
+import dev.eduardoroth.mediaplayer.core.PlayerRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+// Lookups done by every query method and the create and remove cycle of a player.
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlayerRegistryBenchmark {
+
+    @Param({ "1", "10", "50" })
+    public int players;
+
+    private PlayerRegistry<Object> _registry;
+    private String[] _playerIds;
+
+    @Setup
+    public void setUp() {
+        _registry = new PlayerRegistry<>("State");
+        _playerIds = new String[players];
+        for (int i = 0; i < players; i++) {
+            _playerIds[i] = "player-" + i;
+            _registry.put(_playerIds[i], new Object());
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object get(ThreadIndex index) {
+        return _registry.get(_playerIds[index.next(players)]);
+    }
+
+    @Benchmark
+    public Object createAndRemove() {
+        Object created = _registry.getOrCreate("churn", playerId -> new Object());
+        _registry.remove("churn");
+        return created;
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadIndex {
+
+        private int _index = 0;
+
+        int next(int bound) {
+            _index = _index + 1 == bound ? 0 : _index + 1;
+            return _index;
+        }
+    }
+}
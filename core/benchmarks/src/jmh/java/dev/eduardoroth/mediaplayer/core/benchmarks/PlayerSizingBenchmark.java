@@ -0,0 +1,42 @@
+package dev.eduardoroth.mediaplayer.core.benchmarks;
+
+import dev.eduardoroth.mediaplayer.core.PlayerSizing;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+// The placement math run by every create call.
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlayerSizingBenchmark {
+
+    @Param({ "HORIZONTAL", "VERTICAL" })
+    public String orientation;
+
+    public Integer width = 360;
+    public Integer height = 640;
+    public float density = 2.75f;
+    public int screenWidth = 1080;
+    public int screenHeight = 2400;
+
+    @Benchmark
+    public PlayerSizing.Size bothDimensions() {
+        return PlayerSizing.fit(width, height, "HORIZONTAL".equals(orientation), density, screenWidth, screenHeight, 0, 0);
+    }
+
+    @Benchmark
+    public PlayerSizing.Size widthOnly() {
+        return PlayerSizing.fit(width, null, "HORIZONTAL".equals(orientation), density, screenWidth, screenHeight, 16, 16);
+    }
+
+    @Benchmark
+    public PlayerSizing.Size screenSized() {
+        return PlayerSizing.fit(null, null, "HORIZONTAL".equals(orientation), density, screenWidth, screenHeight, 0, 0);
+    }
+}
@@ -0,0 +1,26 @@
+package dev.eduardoroth.mediaplayer.core.benchmarks;
+
+import dev.eduardoroth.mediaplayer.core.SubtitleMimeTypes;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+// MIME detection done for every media item that has subtitles.
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SubtitleMimeTypesBenchmark {
+
+    @Param({ "captions.vtt", "movie.en.srt", "subtitles.dfxp", "playlist.m3u8" })
+    public String fileName;
+
+    @Benchmark
+    public String fromFileName() {
+        return SubtitleMimeTypes.fromFileName(fileName);
+    }
+}
@@ -0,0 +1,95 @@
+package dev.eduardoroth.mediaplayer.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Bounded queue that drops the oldest entry once full and, when coalescing, replaces a pending entry with the same key.
+// Safe to offer from any thread, meant to be polled from a single one.
+public class NotificationQueue<T> {
+
+    private static class Pending<T> {
+
+        private final String _coalesceKey;
+        private final AtomicReference<T> _item;
+
+        Pending(T item, String coalesceKey) {
+            _coalesceKey = coalesceKey;
+            _item = new AtomicReference<>(item);
+        }
+    }
+
+    private final int _capacity;
+    private final boolean _coalesce;
+    private final ConcurrentLinkedQueue<Pending<T>> _pending = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<String, Pending<T>> _coalescing = new ConcurrentHashMap<>();
+    private final AtomicInteger _size = new AtomicInteger();
+
+    public NotificationQueue(int capacity, boolean coalesce) {
+        _capacity = Math.max(1, capacity);
+        _coalesce = coalesce;
+    }
+
+    public void offer(T item, String coalesceKey) {
+        if (_coalesce && coalesceKey != null) {
+            while (true) {
+                Pending<T> pending = _coalescing.get(coalesceKey);
+                if (pending == null) {
+                    Pending<T> fresh = new Pending<>(item, coalesceKey);
+                    if (_coalescing.putIfAbsent(coalesceKey, fresh) == null) {
+                        append(fresh);
+                        return;
+                    }
+                    continue;
+                }
+                T current = pending._item.get();
+                if (current != null && pending._item.compareAndSet(current, item)) {
+                    return;
+                }
+                // Already polled, forget it and queue a new one.
+                _coalescing.remove(coalesceKey, pending);
+            }
+        }
+        append(new Pending<>(item, null));
+    }
+
+    public T poll() {
+        Pending<T> pending;
+        while ((pending = _pending.poll()) != null) {
+            _size.decrementAndGet();
+            T item = claim(pending);
+            if (item != null) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    public boolean isEmpty() {
+        return _pending.isEmpty();
+    }
+
+    public int size() {
+        return Math.max(0, _size.get());
+    }
+
+    private void append(Pending<T> pending) {
+        _pending.offer(pending);
+        if (_size.incrementAndGet() > _capacity) {
+            Pending<T> oldest = _pending.poll();
+            if (oldest != null) {
+                _size.decrementAndGet();
+                claim(oldest);
+            }
+        }
+    }
+
+    private T claim(Pending<T> pending) {
+        T item = pending._item.getAndSet(null);
+        if (pending._coalesceKey != null) {
+            _coalescing.remove(pending._coalesceKey, pending);
+        }
+        return item;
+    }
+}
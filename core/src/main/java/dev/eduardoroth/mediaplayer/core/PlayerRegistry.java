@@ -0,0 +1,58 @@
+package dev.eduardoroth.mediaplayer.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per player entries that can be read from any thread, missing entries are reported the same way for every kind.
+public class PlayerRegistry<T> {
+
+    public interface Factory<T> {
+        T create(String playerId);
+    }
+
+    private final String _name;
+    private final ConcurrentHashMap<String, T> _entries = new ConcurrentHashMap<>();
+
+    public PlayerRegistry(String name) {
+        _name = name;
+    }
+
+    public T get(String playerId) {
+        T entry = _entries.get(playerId);
+        if (entry == null) {
+            throw new Error(_name + " not found for playerId " + playerId);
+        }
+        return entry;
+    }
+
+    public T getOrCreate(String playerId, Factory<T> factory) {
+        T entry = _entries.get(playerId);
+        if (entry != null) {
+            return entry;
+        }
+        T created = factory.create(playerId);
+        T previous = _entries.putIfAbsent(playerId, created);
+        return previous != null ? previous : created;
+    }
+
+    public void put(String playerId, T entry) {
+        _entries.put(playerId, entry);
+    }
+
+    public T remove(String playerId) {
+        return _entries.remove(playerId);
+    }
+
+    public boolean contains(String playerId) {
+        return _entries.containsKey(playerId);
+    }
+
+    public List<String> getPlayerIds() {
+        return new ArrayList<>(_entries.keySet());
+    }
+
+    public int size() {
+        return _entries.size();
+    }
+}
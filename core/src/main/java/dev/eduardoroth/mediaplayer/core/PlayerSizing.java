@@ -0,0 +1,55 @@
+package dev.eduardoroth.mediaplayer.core;
+
+// Turns the requested placement into pixels, keeping the 16:9 or 9:16 ratio and the margins inside the screen.
+public final class PlayerSizing {
+
+    public record Size(int width, int height) {}
+
+    private static final float WIDE = 16f / 9f;
+    private static final float TALL = 9f / 16f;
+
+    private PlayerSizing() {}
+
+    public static Size fit(
+        Integer paramWidth,
+        Integer paramHeight,
+        boolean isHorizontal,
+        float density,
+        int screenWidth,
+        int screenHeight,
+        int horizontalMargin,
+        int verticalMargin
+    ) {
+        int height;
+        int width;
+
+        if (paramHeight != null && paramWidth != null) {
+            width = (int) (paramWidth * density);
+            height = (int) (paramHeight * density);
+        } else if (paramHeight == null && paramWidth == null) {
+            if (isHorizontal) {
+                width = screenWidth;
+                height = (int) (width * TALL);
+            } else {
+                height = screenHeight;
+                width = (int) (height * TALL);
+            }
+        } else if (paramHeight != null) {
+            height = (int) (paramHeight * density);
+            width = (int) (paramHeight * density * (isHorizontal ? WIDE : TALL));
+        } else {
+            width = (int) (paramWidth * density);
+            height = (int) (width * (isHorizontal ? WIDE : TALL));
+        }
+
+        if (width + horizontalMargin > screenWidth) {
+            width = screenWidth - horizontalMargin;
+            height = (int) (width * (isHorizontal ? TALL : WIDE));
+        }
+        if (height + verticalMargin > screenHeight) {
+            height = screenHeight - verticalMargin;
+            width = (int) (height * (isHorizontal ? WIDE : TALL));
+        }
+        return new Size(width, height);
+    }
+}
@@ -0,0 +1,26 @@
+package dev.eduardoroth.mediaplayer.core;
+
+// Same values as the media3 MimeTypes constants, kept here so the lookup doesn't need the Android runtime.
+public final class SubtitleMimeTypes {
+
+    public static final String TEXT_VTT = "text/vtt";
+    public static final String APPLICATION_SUBRIP = "application/x-subrip";
+    public static final String TEXT_SSA = "text/x-ssa";
+    public static final String APPLICATION_TTML = "application/ttml+xml";
+
+    private SubtitleMimeTypes() {}
+
+    public static String fromFileName(String fileName) {
+        if (fileName == null) {
+            return "";
+        }
+        String extension = fileName.substring(fileName.lastIndexOf(".") + 1);
+        return switch (extension) {
+            case "vtt" -> TEXT_VTT;
+            case "srt" -> APPLICATION_SUBRIP;
+            case "ssa", "ass" -> TEXT_SSA;
+            case "ttml", "dfxp", "xml" -> APPLICATION_TTML;
+            default -> "";
+        };
+    }
+}
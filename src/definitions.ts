@@ -1,7 +1,85 @@
 import type { PluginListenerHandle } from '@capacitor/core';
 
+/**
+ * Options read from `plugins.MediaPlayer` in the Capacitor config.
+ */
+export type MediaPlayerPluginConfig = {
+  /**
+   * Android only. Idle ExoPlayer instances kept ready for the next `create` call.
+   */
+  playerPool?: {
+    minIdle?: number;
+    maxIdle?: number;
+    idleTimeout?: number;
+    /**
+     * Number of playback threads shared by all players. 0, the default, gives every player its own thread.
+     */
+    playbackThreads?: number;
+    /**
+     * Bytes all players may hold in their buffers together, shared out by priority with fullscreen and PiP
+     * players getting the most. 0, the default, leaves each player to its buffer profile.
+     */
+    memoryBudget?: number;
+    /**
+     * Players allowed to keep their decoders and buffers at once. Past the cap the least recently used paused
+     * players are suspended until they play again. 0, the default, doesn't cap players.
+     */
+    maxActivePlayers?: number;
+  };
+  /**
+   * Android only. Shared on-disk cache for network media, evicted least recently used first.
+   */
+  cache?: {
+    enabled?: boolean;
+    maxBytes?: number;
+  };
+  /**
+   * Android only. Shared HTTP client used by every player, in milliseconds.
+   */
+  http?: {
+    connectTimeout?: number;
+    readTimeout?: number;
+    maxIdleConnections?: number;
+    keepAlive?: number;
+  };
+  /**
+   * Android only. `preload` calls running at the same time, the milliseconds of media they warm
+   * by default, and the most bytes a single preload may cache.
+   */
+  preload?: {
+    maxConcurrent?: number;
+    duration?: number;
+    maxBytes?: number;
+  };
+  /**
+   * Android only. Offline downloads, `maxParallelSegments` is the number of segments of one stream
+   * fetched at the same time and `progressInterval` the milliseconds between `MediaPlayer:Download` events.
+   */
+  downloads?: {
+    maxParallelDownloads?: number;
+    maxParallelSegments?: number;
+    requireUnmeteredNetwork?: boolean;
+    progressInterval?: number;
+  };
+  /**
+   * Android only. Pending events kept while the bridge catches up. `coalesce` keeps only the latest
+   * time, fullscreen, picture in picture and background event per player, `dropOldest` discards the
+   * oldest event once `capacity` is reached.
+   */
+  notifications?: {
+    capacity?: number;
+    batchSize?: number;
+    overflowPolicy?: 'coalesce' | 'dropOldest';
+  };
+};
+
 export interface MediaPlayerPlugin {
   create(options: MediaPlayerOptions): Promise<MediaPlayerResult<string>>;
+  /**
+   * Validates and stores options under a name, so create can pass `preset` and only the sections that differ.
+   * Sections passed to create are merged key by key over the preset ones.
+   */
+  registerPreset(options: MediaPlayerRegisterPresetOptions): Promise<MediaPlayerResult<string>>;
   play(options: MediaPlayerIdOptions): Promise<MediaPlayerResult<string>>;
   pause(options: MediaPlayerIdOptions): Promise<MediaPlayerResult<string>>;
   getDuration(options: MediaPlayerIdOptions): Promise<MediaPlayerResult<number>>;
@@ -17,8 +95,47 @@ export interface MediaPlayerPlugin {
   setVolume(options: MediaPlayerSetVolumeOptions): Promise<MediaPlayerResult<number>>;
   getRate(options: MediaPlayerIdOptions): Promise<MediaPlayerResult<number>>;
   setRate(options: MediaPlayerSetRateOptions): Promise<MediaPlayerResult<number>>;
+  /**
+   * Every playback field at once. On Android it is read from the last state the player published,
+   * so it resolves without waiting for the UI thread.
+   */
+  getState(options: MediaPlayerIdOptions): Promise<MediaPlayerResult<MediaPlayerState>>;
   remove(options: MediaPlayerIdOptions): Promise<MediaPlayerResult<string>>;
   removeAll(): Promise<MediaPlayerResult<string[]>>;
+  /**
+   * Runs the commands in order in a single task and resolves with one result per command.
+   */
+  executeBatch(options: MediaPlayerBatchOptions): Promise<MediaPlayerResult<MediaPlayerBatchResult[]>>;
+  getBufferInfo(options: MediaPlayerIdOptions): Promise<MediaPlayerResult<MediaPlayerBufferInfo>>;
+  /**
+   * Playback quality aggregates since the player was created. Times are in milliseconds and unset values are -1.
+   */
+  getStats(options: MediaPlayerIdOptions): Promise<MediaPlayerResult<MediaPlayerStats>>;
+  getPlayerPoolStats(): Promise<MediaPlayerResult<MediaPlayerPoolStats>>;
+  getCacheStats(): Promise<MediaPlayerResult<MediaPlayerCacheStats>>;
+  clearCache(): Promise<MediaPlayerResult<boolean>>;
+  pinCacheEntry(options: MediaPlayerCacheEntryOptions): Promise<MediaPlayerResult<string>>;
+  unpinCacheEntry(options: MediaPlayerCacheEntryOptions): Promise<MediaPlayerResult<string>>;
+  setQueue(options: MediaPlayerSetQueueOptions): Promise<MediaPlayerResult<number>>;
+  addToQueue(options: MediaPlayerAddToQueueOptions): Promise<MediaPlayerResult<number>>;
+  removeFromQueue(options: MediaPlayerRemoveFromQueueOptions): Promise<MediaPlayerResult<number>>;
+  moveQueueItem(options: MediaPlayerMoveQueueItemOptions): Promise<MediaPlayerResult<number>>;
+  getQueue(options: MediaPlayerIdOptions): Promise<MediaPlayerResult<MediaPlayerQueue>>;
+  /**
+   * Resolves with the number of bytes written to the cache once the first seconds are stored. HLS, DASH and
+   * SmoothStreaming manifests are read but never cached, and live streams are not warmed.
+   */
+  preload(options: MediaPlayerPreloadOptions): Promise<MediaPlayerResult<number>>;
+  cancelPreload(options: MediaPlayerCacheEntryOptions): Promise<MediaPlayerResult<boolean>>;
+  /**
+   * Resolves once the download is queued, progress is reported through `MediaPlayer:Download`.
+   * `create` plays the downloaded copy of a URL when there is one.
+   */
+  startDownload(options: MediaPlayerDownloadOptions): Promise<MediaPlayerResult<string>>;
+  pauseDownload(options: MediaPlayerCacheEntryOptions): Promise<MediaPlayerResult<string>>;
+  resumeDownload(options: MediaPlayerCacheEntryOptions): Promise<MediaPlayerResult<string>>;
+  removeDownload(options: MediaPlayerCacheEntryOptions): Promise<MediaPlayerResult<string>>;
+  getDownloads(): Promise<MediaPlayerResult<MediaPlayerDownload[]>>;
 
   addListener(
     event: 'MediaPlayer:Ready',
@@ -60,6 +177,31 @@ export interface MediaPlayerPlugin {
     event: 'MediaPlayer:isPlayingInBackground',
     listener: (event: { playerId: string; isPlayingInBackground: boolean }) => void,
   ): Promise<PluginListenerHandle>;
+  addListener(
+    event: 'MediaPlayer:ItemChanged',
+    listener: (event: { playerId: string; index: number; url: string }) => void,
+  ): Promise<PluginListenerHandle>;
+  addListener(
+    event: 'MediaPlayer:Download',
+    listener: (event: Omit<MediaPlayerDownload, 'title'>) => void,
+  ): Promise<PluginListenerHandle>;
+  addListener(
+    event: 'MediaPlayer:Stats',
+    listener: (event: { playerId: string; stats: MediaPlayerStats }) => void,
+  ): Promise<PluginListenerHandle>;
+  /**
+   * Android only. A paused player released its decoders and buffers under memory pressure or past
+   * `playerPool.maxActivePlayers`, or was resumed by `play` or going fullscreen or PiP.
+   */
+  addListener(
+    event: 'MediaPlayer:Suspended',
+    listener: (event: {
+      playerId: string;
+      isSuspended: boolean;
+      currentTime: number;
+      reason?: 'memory' | 'playerCap';
+    }) => void,
+  ): Promise<PluginListenerHandle>;
 
   removeAllListeners(options: MediaPlayerIdOptions): Promise<void>;
 }
@@ -67,6 +209,16 @@ export interface MediaPlayerPlugin {
 export type MediaPlayerOptions = {
   playerId: string;
   url: string;
+  preset?: string;
+  placement?: MediaPlayerPlacementOptions;
+  ios?: MediaPlayerIosOptions;
+  android?: MediaPlayerAndroidOptions;
+  web?: MediaPlayerWebOptions;
+  extra?: MediaPlayerExtraOptions;
+};
+
+export type MediaPlayerRegisterPresetOptions = {
+  name: string;
   placement?: MediaPlayerPlacementOptions;
   ios?: MediaPlayerIosOptions;
   android?: MediaPlayerAndroidOptions;
@@ -128,6 +280,41 @@ export type MediaPlayerAndroidOptions = {
   automaticallyEnterPiP?: boolean;
   fullscreenOnLandscape?: boolean;
   stopOnTaskRemoved?: boolean;
+  /**
+   * Buffering thresholds of the player, `custom` reads them from `bufferOptions`.
+   */
+  bufferProfile?: 'default' | 'fastStart' | 'lowMemory' | 'lowLatencyLive' | 'highResilience' | 'custom';
+  bufferOptions?: MediaPlayerBufferOptions;
+  /**
+   * Milliseconds between `MediaPlayer:TimeUpdated` checks while playing, defaults to 100.
+   */
+  timeUpdateInterval?: number;
+  /**
+   * Minimum position change in milliseconds before a new `MediaPlayer:TimeUpdated` is emitted.
+   */
+  timeUpdateMinDelta?: number;
+  /**
+   * Stops `MediaPlayer:TimeUpdated` while the app is in the background or the player is in picture in picture.
+   */
+  pauseTimeUpdatesWhenHidden?: boolean;
+  /**
+   * Milliseconds between `MediaPlayer:Stats` events, disabled by default.
+   */
+  statsInterval?: number;
+  /**
+   * Plays only the audio track while the app is in the background or the player is scrolled out of view, video
+   * is buffered again on return. Defaults to false.
+   */
+  audioOnlyWhenHidden?: boolean;
+};
+
+export type MediaPlayerBufferOptions = {
+  minBufferMs?: number;
+  maxBufferMs?: number;
+  bufferForPlaybackMs?: number;
+  bufferForPlaybackAfterRebufferMs?: number;
+  backBufferMs?: number;
+  targetBufferBytes?: number;
 };
 
 export type MediaPlayerWebOptions = {
@@ -154,6 +341,183 @@ export type MediaPlayerSubtitleOptions = {
   };
 };
 
+export type MediaPlayerBatchCommand =
+  | { playerId: string; command: 'play' | 'pause' | 'mute' }
+  | { playerId: string; command: 'setVolume' | 'setRate' | 'setCurrentTime'; value: number };
+
+export type MediaPlayerBatchOptions = {
+  commands: MediaPlayerBatchCommand[];
+};
+
+export type MediaPlayerBatchResult = {
+  playerId: string;
+  command: string;
+  result: boolean;
+  value?: boolean | number;
+  message?: string;
+};
+
+export type MediaPlayerState = {
+  playerId: string;
+  url: string;
+  playbackState: 'idle' | 'buffering' | 'ready' | 'ended';
+  isPlaying: boolean;
+  currentTime: number;
+  duration: number;
+  volume: number;
+  isMuted: boolean;
+  rate: number;
+  currentIndex: number;
+  queueLength: number;
+};
+
+export type MediaPlayerBufferInfo = Required<MediaPlayerBufferOptions> & {
+  profile: string;
+  bufferedDurationMs: number;
+  bufferedPercentage: number;
+  bufferedBytes: number;
+  /**
+   * This player's share of `playerPool.memoryBudget` in bytes, -1 without a budget.
+   */
+  bufferBudget: number;
+};
+
+export type MediaPlayerStats = {
+  playerId: string;
+  /**
+   * Milliseconds from the first play request to playback starting, -1 until then.
+   */
+  startupTime: number;
+  /**
+   * Milliseconds from prepare to the first rendered frame, -1 until then.
+   */
+  timeToFirstFrame: number;
+  playTime: number;
+  rebufferCount: number;
+  rebufferDuration: number;
+  rebufferRatio: number;
+  droppedFrames: number;
+  bitrateSwitches: number;
+  videoBitrate: number;
+  videoWidth: number;
+  videoHeight: number;
+  bandwidthEstimate: number;
+  errorCount: number;
+  /**
+   * Time the player spent on its playback thread, in milliseconds.
+   */
+  playbackWorkTime: number;
+};
+
+export type MediaPlayerPoolStats = {
+  idle: number;
+  minIdle: number;
+  maxIdle: number;
+  idleTimeout: number;
+  hits: number;
+  misses: number;
+  created: number;
+  recycled: number;
+  evicted: number;
+  playbackThreads: number;
+  memoryBudget: number;
+  allocatedBytes: number;
+};
+
+export type MediaPlayerCacheStats = {
+  enabled: boolean;
+  size: number;
+  maxSize: number;
+  cachedBytesRead: number;
+  networkBytesRead: number;
+  hitRatio: number;
+  pinned: string[];
+};
+
+export type MediaPlayerCacheEntryOptions = {
+  /**
+   * Every cached entry whose URL starts with this value is affected, so passing the base path of an
+   * HLS or DASH stream covers all of its segments.
+   */
+  url: string;
+};
+
+export type MediaPlayerPreloadOptions = {
+  url: string;
+  /**
+   * Only the headers are used while preloading.
+   */
+  extra?: MediaPlayerExtraOptions;
+  /**
+   * Milliseconds of media to warm, defaults to the `preload.duration` config.
+   */
+  duration?: number;
+  /**
+   * Bits per second of a progressive file, used to size `duration` in bytes. Without it a progressive
+   * preload caches up to `preload.maxBytes`. HLS, DASH and SmoothStreaming are sized from their segments and ignore it.
+   */
+  bitrate?: number;
+};
+
+export type MediaPlayerDownloadOptions = {
+  url: string;
+  /**
+   * The title is stored with the download and the headers are used to resolve the manifest.
+   */
+  extra?: MediaPlayerExtraOptions;
+  /**
+   * Highest video bitrate to download, the best quality the device supports is picked otherwise.
+   */
+  maxVideoBitrate?: number;
+};
+
+export type MediaPlayerDownload = {
+  url: string;
+  title: string;
+  state: 'queued' | 'downloading' | 'paused' | 'completed' | 'failed' | 'removing' | 'restarting' | 'removed';
+  percentDownloaded: number;
+  bytesDownloaded: number;
+};
+
+export type MediaPlayerQueueItem = {
+  url: string;
+  /**
+   * Only the metadata and subtitles are used, playback options come from the `create` call of the player.
+   */
+  extra?: MediaPlayerExtraOptions;
+};
+
+export type MediaPlayerSetQueueOptions = {
+  playerId: string;
+  items: MediaPlayerQueueItem[];
+  startIndex?: number;
+};
+
+export type MediaPlayerAddToQueueOptions = {
+  playerId: string;
+  items: MediaPlayerQueueItem[];
+  /**
+   * Position to insert the items at, they are appended when omitted.
+   */
+  index?: number;
+};
+
+export type MediaPlayerRemoveFromQueueOptions = {
+  playerId: string;
+  index: number;
+};
+
+export type MediaPlayerMoveQueueItemOptions = {
+  playerId: string;
+  from: number;
+  to: number;
+};
+
+export type MediaPlayerQueue = {
+  currentIndex: number;
+  items: { url: string; title?: string }[];
+};
+
 export type MediaPlayerResult<ResultValueType> = {
   method: string;
   result: boolean;
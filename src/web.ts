@@ -3,14 +3,31 @@ import type { MediaPlayerElement } from 'vidstack/elements';
 import { VidstackPlayer, VidstackPlayerLayout } from 'vidstack/global/player';
 
 import type {
+  MediaPlayerAddToQueueOptions,
+  MediaPlayerBatchOptions,
+  MediaPlayerBatchResult,
+  MediaPlayerBufferInfo,
+  MediaPlayerCacheEntryOptions,
+  MediaPlayerCacheStats,
+  MediaPlayerDownload,
+  MediaPlayerDownloadOptions,
   MediaPlayerIdOptions,
+  MediaPlayerMoveQueueItemOptions,
   MediaPlayerOptions,
   MediaPlayerPlugin,
+  MediaPlayerPoolStats,
+  MediaPlayerPreloadOptions,
+  MediaPlayerQueue,
+  MediaPlayerRegisterPresetOptions,
+  MediaPlayerRemoveFromQueueOptions,
   MediaPlayerResult,
   MediaPlayerSetCurrentTimeOptions,
+  MediaPlayerSetQueueOptions,
   MediaPlayerSetRateOptions,
   MediaPlayerSetVisibilityBackgroundForPiPOptions,
   MediaPlayerSetVolumeOptions,
+  MediaPlayerState,
+  MediaPlayerStats,
 } from './definitions';
 
 export class MediaPlayerWeb extends WebPlugin implements MediaPlayerPlugin {
@@ -152,6 +169,14 @@ export class MediaPlayerWeb extends WebPlugin implements MediaPlayerPlugin {
     });
   }
 
+  async registerPreset(options: MediaPlayerRegisterPresetOptions): Promise<MediaPlayerResult<string>> {
+    return {
+      method: 'registerPreset',
+      result: false,
+      message: `Method not implemented for Web ${options.name}`,
+    };
+  }
+
   async play(options: MediaPlayerIdOptions): Promise<MediaPlayerResult<string>> {
     const player = this._players.get(options.playerId);
     if (player) {
@@ -392,4 +417,172 @@ export class MediaPlayerWeb extends WebPlugin implements MediaPlayerPlugin {
       value: playersToRemove,
     };
   }
+
+  async getState(options: MediaPlayerIdOptions): Promise<MediaPlayerResult<MediaPlayerState>> {
+    return {
+      method: 'getState',
+      result: false,
+      message: `Method not implemented for Web ${options.playerId}`,
+    };
+  }
+
+  async executeBatch(options: MediaPlayerBatchOptions): Promise<MediaPlayerResult<MediaPlayerBatchResult[]>> {
+    return {
+      method: 'executeBatch',
+      result: false,
+      message: `Method not implemented for Web ${options.commands.length} commands`,
+    };
+  }
+
+  async getBufferInfo(options: MediaPlayerIdOptions): Promise<MediaPlayerResult<MediaPlayerBufferInfo>> {
+    return {
+      method: 'getBufferInfo',
+      result: false,
+      message: `Method not implemented for Web ${options.playerId}`,
+    };
+  }
+
+  async getStats(options: MediaPlayerIdOptions): Promise<MediaPlayerResult<MediaPlayerStats>> {
+    return {
+      method: 'getStats',
+      result: false,
+      message: `Method not implemented for Web ${options.playerId}`,
+    };
+  }
+
+  async getPlayerPoolStats(): Promise<MediaPlayerResult<MediaPlayerPoolStats>> {
+    return {
+      method: 'getPlayerPoolStats',
+      result: false,
+      message: 'Method not implemented for Web',
+    };
+  }
+
+  async getCacheStats(): Promise<MediaPlayerResult<MediaPlayerCacheStats>> {
+    return {
+      method: 'getCacheStats',
+      result: false,
+      message: 'Method not implemented for Web',
+    };
+  }
+
+  async clearCache(): Promise<MediaPlayerResult<boolean>> {
+    return {
+      method: 'clearCache',
+      result: false,
+      message: 'Method not implemented for Web',
+    };
+  }
+
+  async pinCacheEntry(options: MediaPlayerCacheEntryOptions): Promise<MediaPlayerResult<string>> {
+    return {
+      method: 'pinCacheEntry',
+      result: false,
+      message: `Method not implemented for Web ${options.url}`,
+    };
+  }
+
+  async unpinCacheEntry(options: MediaPlayerCacheEntryOptions): Promise<MediaPlayerResult<string>> {
+    return {
+      method: 'unpinCacheEntry',
+      result: false,
+      message: `Method not implemented for Web ${options.url}`,
+    };
+  }
+
+  async setQueue(options: MediaPlayerSetQueueOptions): Promise<MediaPlayerResult<number>> {
+    return {
+      method: 'setQueue',
+      result: false,
+      message: `Method not implemented for Web ${options.playerId}`,
+    };
+  }
+
+  async addToQueue(options: MediaPlayerAddToQueueOptions): Promise<MediaPlayerResult<number>> {
+    return {
+      method: 'addToQueue',
+      result: false,
+      message: `Method not implemented for Web ${options.playerId}`,
+    };
+  }
+
+  async removeFromQueue(options: MediaPlayerRemoveFromQueueOptions): Promise<MediaPlayerResult<number>> {
+    return {
+      method: 'removeFromQueue',
+      result: false,
+      message: `Method not implemented for Web ${options.playerId}`,
+    };
+  }
+
+  async moveQueueItem(options: MediaPlayerMoveQueueItemOptions): Promise<MediaPlayerResult<number>> {
+    return {
+      method: 'moveQueueItem',
+      result: false,
+      message: `Method not implemented for Web ${options.playerId}`,
+    };
+  }
+
+  async getQueue(options: MediaPlayerIdOptions): Promise<MediaPlayerResult<MediaPlayerQueue>> {
+    return {
+      method: 'getQueue',
+      result: false,
+      message: `Method not implemented for Web ${options.playerId}`,
+    };
+  }
+
+  async preload(options: MediaPlayerPreloadOptions): Promise<MediaPlayerResult<number>> {
+    return {
+      method: 'preload',
+      result: false,
+      message: `Method not implemented for Web ${options.url}`,
+    };
+  }
+
+  async cancelPreload(options: MediaPlayerCacheEntryOptions): Promise<MediaPlayerResult<boolean>> {
+    return {
+      method: 'cancelPreload',
+      result: false,
+      message: `Method not implemented for Web ${options.url}`,
+    };
+  }
+
+  async startDownload(options: MediaPlayerDownloadOptions): Promise<MediaPlayerResult<string>> {
+    return {
+      method: 'startDownload',
+      result: false,
+      message: `Method not implemented for Web ${options.url}`,
+    };
+  }
+
+  async pauseDownload(options: MediaPlayerCacheEntryOptions): Promise<MediaPlayerResult<string>> {
+    return {
+      method: 'pauseDownload',
+      result: false,
+      message: `Method not implemented for Web ${options.url}`,
+    };
+  }
+
+  async resumeDownload(options: MediaPlayerCacheEntryOptions): Promise<MediaPlayerResult<string>> {
+    return {
+      method: 'resumeDownload',
+      result: false,
+      message: `Method not implemented for Web ${options.url}`,
+    };
+  }
+
+  async removeDownload(options: MediaPlayerCacheEntryOptions): Promise<MediaPlayerResult<string>> {
+    return {
+      method: 'removeDownload',
+      result: false,
+      message: `Method not implemented for Web ${options.url}`,
+    };
+  }
+
+  async getDownloads(): Promise<MediaPlayerResult<MediaPlayerDownload[]>> {
+    return {
+      method: 'getDownloads',
+      result: false,
+      message: 'Method not implemented for Web',
+    };
+  }
 }